@@ -0,0 +1,136 @@
+package io.github.railroad.settings;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.reflect.TypeToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the composite codecs with the reflective Gson binding that plugins used to hand-roll, for lists and maps of
+ * 10 and 1000 strings, and compares the enum codecs with looking constants up through {@link Enum#valueOf} and
+ * {@code values()}.
+ * <p>
+ * Run with {@code -prof gc} to compare the allocation of decoding, which the composite codecs do without
+ * intermediate copies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompositeCodecBenchmark {
+    private static final Type LIST_TYPE = new TypeToken<List<String>>() {}.getType();
+    private static final Type MAP_TYPE = new TypeToken<Map<String, String>>() {}.getType();
+
+    @Param({"10", "1000"})
+    public int size;
+
+    private final Gson gson = new Gson();
+    private final SettingCodec<List<String>, ?> listCodec = SettingCodec.listOf(DefaultSettingCodecs.STRING);
+    private final SettingCodec<Map<String, String>, ?> mapCodec = SettingCodec.mapOf(DefaultSettingCodecs.STRING);
+    private final SettingCodec<Mode, ?> byName = SettingCodec.enumByName(Mode.class);
+    private final SettingCodec<Mode, ?> byOrdinal = SettingCodec.enumByOrdinal(Mode.class);
+    private final JsonElement nameJson = new JsonPrimitive(Mode.MINIMAP.name());
+    private final JsonElement ordinalJson = new JsonPrimitive(Mode.MINIMAP.ordinal());
+
+    private List<String> list;
+    private Map<String, String> map;
+    private JsonElement listJson;
+    private JsonElement mapJson;
+
+    @Setup
+    public void setUp() {
+        this.list = new ArrayList<>(this.size);
+        this.map = new LinkedHashMap<>();
+        for (int index = 0; index < this.size; index++) {
+            this.list.add("/projects/railroad/src/File" + index + ".java");
+            this.map.put("ctrl+" + index, "action.editor." + index);
+        }
+
+        this.listJson = this.listCodec.serializeJson(this.list);
+        this.mapJson = this.mapCodec.serializeJson(this.map);
+    }
+
+    @Benchmark
+    public JsonElement encodeListCodec() {
+        return this.listCodec.serializeJson(this.list);
+    }
+
+    @Benchmark
+    public JsonElement encodeListReflective() {
+        return this.gson.toJsonTree(this.list, LIST_TYPE);
+    }
+
+    @Benchmark
+    public List<String> decodeListCodec() {
+        return this.listCodec.deserializeJson(this.listJson);
+    }
+
+    @Benchmark
+    public List<String> decodeListReflective() {
+        return this.gson.fromJson(this.listJson, LIST_TYPE);
+    }
+
+    @Benchmark
+    public Map<String, String> decodeMapCodec() {
+        return this.mapCodec.deserializeJson(this.mapJson);
+    }
+
+    @Benchmark
+    public Map<String, String> decodeMapReflective() {
+        return this.gson.fromJson(this.mapJson, MAP_TYPE);
+    }
+
+    @Benchmark
+    public JsonElement encodeEnumByName() {
+        return this.byName.serializeJson(Mode.MINIMAP);
+    }
+
+    @Benchmark
+    public JsonElement encodeEnumByNameReflective() {
+        return new JsonPrimitive(Mode.MINIMAP.name());
+    }
+
+    @Benchmark
+    public Mode decodeEnumByName() {
+        return this.byName.deserializeJson(this.nameJson);
+    }
+
+    @Benchmark
+    public Mode decodeEnumByNameReflective() {
+        return Enum.valueOf(Mode.class, this.nameJson.getAsString());
+    }
+
+    @Benchmark
+    public Mode decodeEnumByOrdinal() {
+        return this.byOrdinal.deserializeJson(this.ordinalJson);
+    }
+
+    @Benchmark
+    public Mode decodeEnumByOrdinalValues() {
+        return Mode.values()[this.ordinalJson.getAsInt()];
+    }
+
+    public enum Mode {
+        NONE, GUTTER, MINIMAP, OVERVIEW
+    }
+}
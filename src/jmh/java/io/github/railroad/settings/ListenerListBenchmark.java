@@ -0,0 +1,100 @@
+package io.github.railroad.settings;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Compares {@link ListenerList} with the {@link CopyOnWriteArrayList} it replaced, for lists holding 10, 1000 and
+ * 100000 listeners.
+ * <p>
+ * The churn benchmarks remove the oldest listener and add a new one, as editors opening and closing do, so the list
+ * keeps its size. The notify benchmarks deliver a value to every listener the way {@link Setting} does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListenerListBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int listeners;
+
+    private ListenerList<IntConsumer> list;
+    private ListenerList.Entry<IntConsumer>[] entries;
+    private CopyOnWriteArrayList<IntConsumer> copyOnWrite;
+    private IntConsumer[] registered;
+    private int oldest;
+    private int sink;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        this.list = new ListenerList<>();
+        this.entries = (ListenerList.Entry<IntConsumer>[]) new ListenerList.Entry<?>[this.listeners];
+        this.copyOnWrite = new CopyOnWriteArrayList<>();
+        this.registered = new IntConsumer[this.listeners];
+        for (int index = 0; index < this.listeners; index++) {
+            this.registered[index] = value -> this.sink += value;
+            this.entries[index] = this.list.add(this.registered[index]);
+            this.copyOnWrite.add(this.registered[index]);
+        }
+    }
+
+    @Benchmark
+    public void churnListenerList() {
+        int index = nextOldest();
+        this.list.remove(this.entries[index]);
+        this.entries[index] = this.list.add(this.registered[index]);
+    }
+
+    @Benchmark
+    public void churnCopyOnWrite() {
+        int index = nextOldest();
+        this.copyOnWrite.remove(this.registered[index]);
+        this.copyOnWrite.add(this.registered[index]);
+    }
+
+    @Benchmark
+    public int notifyListenerList() {
+        for (ListenerList.Entry<IntConsumer> entry : this.list.entries()) {
+            if (entry == null)
+                break;
+
+            IntConsumer listener = entry.get();
+            if (listener != null) {
+                listener.accept(1);
+            }
+        }
+
+        return this.sink;
+    }
+
+    @Benchmark
+    public int notifyCopyOnWrite() {
+        for (IntConsumer listener : this.copyOnWrite) {
+            listener.accept(1);
+        }
+
+        return this.sink;
+    }
+
+    private int nextOldest() {
+        int index = this.oldest;
+        this.oldest = index + 1 == this.listeners ? 0 : index + 1;
+        return index;
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.railroad.settings;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link NumberParsing} with parsing through the JDK parsers and catching their exception, for valid input
+ * and for the intermediate input a text field holds while the user is typing.
+ * <p>
+ * Run with {@code -prof gc} to see that invalid input allocates nothing with {@link NumberParsing}, while each
+ * exception fills in a stack trace.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumberParsingBenchmark {
+    @Param({"14", "-2147483648", "", "-", "12a", "1.5e"})
+    public String text;
+
+    @Benchmark
+    public int parseInt() {
+        return NumberParsing.parseInt(this.text, 0);
+    }
+
+    @Benchmark
+    public int parseIntCatching() {
+        try {
+            return Integer.parseInt(this.text);
+        } catch (NumberFormatException exception) {
+            return 0;
+        }
+    }
+
+    @Benchmark
+    public double parseDouble() {
+        return NumberParsing.parseDouble(this.text, 0.0);
+    }
+
+    @Benchmark
+    public double parseDoubleCatching() {
+        try {
+            return Double.parseDouble(this.text);
+        } catch (NumberFormatException exception) {
+            return 0.0;
+        }
+    }
+}
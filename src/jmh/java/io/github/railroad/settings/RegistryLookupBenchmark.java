@@ -0,0 +1,81 @@
+package io.github.railroad.settings;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading the dozen settings an editor keystroke handler needs through {@link SettingKey} handles against
+ * looking them up by their string IDs, in a plain map as plugins did before and in the registry's own ID index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistryLookupBenchmark {
+    private static final int READS = 12;
+
+    @Param({"100", "8000"})
+    public int settings;
+
+    private SettingsRegistry registry;
+    private Map<String, Setting<?>> settingsById;
+    private SettingKey<?>[] keys;
+    private String[] ids;
+
+    @Setup
+    public void setUp() {
+        this.registry = new SettingsRegistry();
+        this.settingsById = new HashMap<>();
+        SettingKey<?>[] allKeys = new SettingKey<?>[this.settings];
+        for (int index = 0; index < this.settings; index++) {
+            var setting = new IntSetting("plugin" + index % 50 + ".editor.setting" + index, "plugin" + index % 50, index);
+            allKeys[index] = this.registry.register(setting);
+            this.settingsById.put(setting.getId(), setting);
+        }
+
+        // The read settings are spread over the registry, as they belong to different plugins
+        this.keys = new SettingKey<?>[READS];
+        this.ids = new String[READS];
+        for (int read = 0; read < READS; read++) {
+            this.keys[read] = allKeys[(int) ((long) read * this.settings / READS)];
+            this.ids[read] = this.keys[read].getId();
+        }
+    }
+
+    @Benchmark
+    public void byKey(Blackhole blackhole) {
+        for (SettingKey<?> key : this.keys) {
+            blackhole.consume(this.registry.getValue(key));
+        }
+    }
+
+    @Benchmark
+    public void byIdInMap(Blackhole blackhole) {
+        for (String id : this.ids) {
+            blackhole.consume(this.settingsById.get(id).getValue());
+        }
+    }
+
+    @Benchmark
+    public void byIdInRegistry(Blackhole blackhole) {
+        for (String id : this.ids) {
+            blackhole.consume(this.registry.getSetting(id).getValue());
+        }
+    }
+}
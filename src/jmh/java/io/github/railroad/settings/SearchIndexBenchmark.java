@@ -0,0 +1,85 @@
+package io.github.railroad.settings;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of settings searches over 10000 settings, for exact, misspelled and multi-term queries, against
+ * the scan over every ID and tree path the settings dialog did per keystroke before the index existed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchIndexBenchmark {
+    private static final int SETTINGS = 10_000;
+    private static final int LIMIT = 50;
+    private static final String[] WORDS = {
+            "editor", "font", "size", "theme", "color", "tab", "width", "indent", "wrap", "gutter",
+            "minimap", "cursor", "blink", "plugin", "git", "build", "gradle", "maven", "console", "terminal"
+    };
+
+    @Param({"editor", "edtor", "minimap font", "blnk curosr", "setting1234"})
+    public String query;
+
+    private SettingsSearchIndex index;
+    private List<Setting<?>> settings;
+
+    @Setup
+    public void setUp() {
+        var registry = new SettingsRegistry();
+        var random = new Random(1);
+        for (int setting = 0; setting < SETTINGS; setting++) {
+            registry.register(new IntSetting(word(random) + "." + word(random) + "Setting" + setting,
+                    word(random) + "." + word(random), 0));
+        }
+
+        this.index = registry.getSearchIndex();
+        this.settings = registry.getSettings();
+    }
+
+    @Benchmark
+    public List<SettingsSearchIndex.Result> search() {
+        return this.index.search(this.query, LIMIT);
+    }
+
+    @Benchmark
+    public List<Setting<?>> scan() {
+        String[] terms = this.query.toLowerCase(Locale.ROOT).split(" ");
+        List<Setting<?>> matches = new ArrayList<>();
+        for (Setting<?> setting : this.settings) {
+            String text = (setting.getId() + " " + setting.getTreePath()).toLowerCase(Locale.ROOT);
+            boolean matchesAll = true;
+            for (String term : terms) {
+                matchesAll &= text.contains(term);
+            }
+
+            if (matchesAll && matches.size() < LIMIT) {
+                matches.add(setting);
+            }
+        }
+
+        return matches;
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
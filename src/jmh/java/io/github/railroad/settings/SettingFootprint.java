@@ -0,0 +1,64 @@
+package io.github.railroad.settings;
+
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntFunction;
+
+/**
+ * Prints the memory retained by each setting, measured with JOL, before and after its first listener is added.
+ * <p>
+ * Objects shared between settings, such as codecs, classes and the shared empty listener list, are not part of the
+ * footprint of a setting, so the footprint is measured as the growth of the graph retained by many settings over
+ * the graph retained by one. The eagerly allocated {@link CopyOnWriteArrayList} every setting held before listener
+ * lists were created lazily is measured the same way, giving the footprint before that change.
+ * <p>
+ * Run with {@code ./gradlew footprint}.
+ */
+public final class SettingFootprint {
+    private static final int COUNT = 8000;
+
+    private SettingFootprint() {
+    }
+
+    public static void main(String[] args) {
+        long eagerList = footprint(index -> new CopyOnWriteArrayList<>());
+        print("Setting<String>", index -> Setting.builder(String.class, "plugin.setting" + index)
+                .treePath("plugin")
+                .codec(DefaultSettingCodecs.STRING)
+                .defaultValue("value")
+                .build(), eagerList);
+        print("IntSetting", index -> new IntSetting("plugin.setting" + index, "plugin", index), eagerList);
+        print("BooleanSetting", index -> new BooleanSetting("plugin.setting" + index, "plugin", false), eagerList);
+    }
+
+    private static void print(String name, IntFunction<Setting<?>> factory, long eagerList) {
+        long lazy = footprint(factory::apply);
+        long listened = footprint(index -> {
+            Setting<?> setting = factory.apply(index);
+            setting.addListener(value -> {
+            });
+            return setting;
+        });
+
+        System.out.printf("%-16s before: %4d bytes, after: %4d bytes, after its first listener: %4d bytes%n",
+                name, lazy + eagerList, lazy, listened);
+    }
+
+    /**
+     * Measures the bytes retained by one object created by the factory that are not shared with the other objects.
+     */
+    private static long footprint(IntFunction<Object> factory) {
+        var many = new Object[COUNT];
+        for (int index = 0; index < COUNT; index++) {
+            many[index] = factory.apply(index);
+        }
+
+        long manySize = GraphLayout.parseInstance(many).totalSize();
+        long oneSize = GraphLayout.parseInstance(new Object[]{many[0]}).totalSize();
+        // The arrays differ in size as well, which is not part of the footprint
+        long arrays = GraphLayout.parseInstance((Object) new Object[COUNT]).totalSize()
+                - GraphLayout.parseInstance((Object) new Object[1]).totalSize();
+        return (manySize - oneSize - arrays) / (COUNT - 1);
+    }
+}
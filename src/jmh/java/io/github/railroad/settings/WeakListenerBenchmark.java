@@ -0,0 +1,96 @@
+package io.github.railroad.settings;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of notifying a setting's listeners after many editor tabs have registered a listener and been
+ * closed without removing it, as happens over a day of use.
+ * <p>
+ * With {@code weak} listeners the forgotten listeners are purged once their tabs are collected, so notifying costs
+ * the same however many tabs were opened before. With {@code strong} listeners, the only option before weak
+ * listeners were added, every forgotten listener stays registered and the cost grows with the number of tabs.
+ * {@link #openTabAndNotify()} runs the same pattern continuously, so its score only stays flat across iterations
+ * if forgotten listeners do not pile up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class WeakListenerBenchmark {
+    private static final int OPEN_TABS = 10;
+
+    @Param({"0", "1000", "100000"})
+    public int closedTabs;
+
+    @Param({"weak", "strong"})
+    public String registration;
+
+    private final Tab[] openTabs = new Tab[OPEN_TABS];
+    private IntSetting setting;
+    private int value;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        this.setting = new IntSetting("editor.fontSize", "editor", 12);
+        for (int tab = 0; tab < this.closedTabs; tab++) {
+            // The tab is closed right away and never removes its listener
+            openTab(new Tab());
+        }
+
+        for (int tab = 0; tab < OPEN_TABS; tab++) {
+            this.openTabs[tab] = new Tab();
+            openTab(this.openTabs[tab]);
+        }
+
+        // Lets the closed tabs be collected, their weak listeners are purged on the first notification
+        System.gc();
+        this.setting.setInt(++this.value);
+    }
+
+    @Benchmark
+    public int notifyListeners() {
+        this.setting.setInt(++this.value);
+        return this.value;
+    }
+
+    @Benchmark
+    public int openTabAndNotify() {
+        openTab(new Tab());
+        this.setting.setInt(++this.value);
+        return this.value;
+    }
+
+    private void openTab(Tab tab) {
+        if (this.registration.equals("weak")) {
+            this.setting.addWeakListener(tab, Tab::fontSizeChanged);
+        } else {
+            this.setting.addListener(tab::fontSizeChanged);
+        }
+    }
+
+    /**
+     * Stands in for an editor tab that follows the font size.
+     */
+    private static final class Tab {
+        private int fontSize;
+
+        private void fontSizeChanged(int fontSize) {
+            this.fontSize = fontSize;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.railroad.settings;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes files atomically by writing to a temporary file next to the target and moving it over the target,
+ * so readers never observe a partially written file.
+ */
+final class AtomicFiles {
+    private AtomicFiles() {
+    }
+
+    /**
+     * Replaces the contents of a file atomically.
+     *
+     * @param path    The file to write.
+     * @param content The function writing the new contents of the file.
+     * @throws IOException If writing or moving the file fails.
+     */
+    static void write(Path path, ContentWriter content) throws IOException {
+        Path target = path.toAbsolutePath();
+        Path parent = target.getParent();
+        Files.createDirectories(parent);
+
+        Path temp = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                content.write(out);
+            }
+
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException exception) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Writes the contents of a file.
+     */
+    @FunctionalInterface
+    interface ContentWriter {
+        void write(OutputStream out) throws IOException;
+    }
+}
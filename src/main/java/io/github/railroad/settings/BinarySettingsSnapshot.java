@@ -0,0 +1,386 @@
+package io.github.railroad.settings;
+
+import com.google.gson.JsonParser;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+
+/**
+ * A compact, memory-mapped binary snapshot of the settings of a {@link SettingsRegistry}, used to speed up startup.
+ * <p>
+ * The JSON settings file remains the source of truth: the snapshot records the size and a CRC-32C checksum of the
+ * content of the JSON file it was generated from, and {@link #openOrRegenerate(Path, Path, SettingsRegistry)}
+ * regenerates it when the JSON file has changed since. Comparing the content rather than the modification time also
+ * catches edits that keep the size and land within the timestamp resolution of the file system. Opening a snapshot only reads its index; the value of a setting is decoded when
+ * it is {@link #apply(Setting) applied}, or, when {@link #applyLazily(Setting) applied lazily}, when it is first read.
+ * <p>
+ * Values of codecs that {@link SettingCodec#hasBinaryCodec() provide a binary representation} are stored in that
+ * representation, all other values are stored as JSON text. The layout is, in big-endian order:
+ * <pre>
+ * int    magic
+ * short  version
+ * long   source size, in bytes
+ * long   source CRC-32C checksum
+ * int    string count, followed by each string as an int length and UTF-8 bytes
+ * int    entry count, followed by each entry as:
+ *        int id string, int tree path string, int codec ID string,
+ *        byte kind (null, binary or JSON), int payload length, payload bytes
+ * </pre>
+ */
+public final class BinarySettingsSnapshot {
+    private static final int MAGIC = 0x52525353;
+    private static final short VERSION = 2;
+    private static final int HEADER_SIZE = Integer.BYTES + Short.BYTES + Long.BYTES + Long.BYTES;
+    private static final byte KIND_NULL = 0;
+    private static final byte KIND_BINARY = 1;
+    private static final byte KIND_JSON = 2;
+
+    private final ByteBuffer buffer;
+    private final long sourceSize;
+    private final long sourceChecksum;
+    private final Map<String, Entry> entries;
+
+    private BinarySettingsSnapshot(ByteBuffer buffer, long sourceSize, long sourceChecksum, Map<String, Entry> entries) {
+        this.buffer = buffer;
+        this.sourceSize = sourceSize;
+        this.sourceChecksum = sourceChecksum;
+        this.entries = entries;
+    }
+
+    /**
+     * Opens the snapshot, regenerating it first if it is missing, unreadable or stale.
+     * When the snapshot is regenerated, the registry is loaded from the JSON source in the process, so applying the
+     * returned snapshot to it is not necessary.
+     * <p>
+     * Staleness is checked by reading the header with a plain read, and the file is only mapped once it is known to
+     * be current, so a stale snapshot is never mapped while it is being replaced. Platforms such as Windows refuse to
+     * replace a file that is mapped.
+     *
+     * @param path     The snapshot file.
+     * @param source   The JSON settings file the snapshot is generated from.
+     * @param registry The registry whose settings the snapshot holds.
+     * @return The opened snapshot.
+     * @throws IOException If the JSON source cannot be read or the snapshot cannot be written.
+     */
+    public static BinarySettingsSnapshot openOrRegenerate(@NotNull Path path, @NotNull Path source,
+                                                          @NotNull SettingsRegistry registry) throws IOException {
+        if (Files.exists(path)) {
+            try {
+                long[] header = readHeader(path);
+                long[] stamp = stamp(source, header[0]);
+                if (header[0] == stamp[0] && header[1] == stamp[1])
+                    return open(path);
+            } catch (IOException ignored) {
+                // An unreadable snapshot is regenerated from the source below
+            }
+        }
+
+        new JsonSettingsStore(registry).load(source);
+        write(path, registry, source);
+        return open(path);
+    }
+
+    /**
+     * Writes a snapshot of the current values of all settings in the registry, replacing the file atomically.
+     *
+     * @param path     The snapshot file.
+     * @param registry The registry whose settings are written.
+     * @param source   The JSON settings file the values were loaded from, used to detect staleness.
+     * @throws IOException If the source cannot be inspected or the snapshot cannot be written.
+     */
+    public static void write(@NotNull Path path, @NotNull SettingsRegistry registry, @NotNull Path source) throws IOException {
+        long[] stamp = stamp(source);
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> stringIndices = new HashMap<>();
+        var entries = new ByteArrayOutputStream();
+        var entriesOut = new DataOutputStream(entries);
+        int entryCount = 0;
+
+        var payload = new ByteArrayOutputStream();
+        var payloadOut = new DataOutputStream(payload);
+        for (Setting<?> setting : registry.getSettings()) {
+            if (setting.getCodec() == null)
+                continue;
+
+            payload.reset();
+            byte kind = encodeValue(setting, payloadOut);
+            entriesOut.writeInt(intern(setting.getId(), strings, stringIndices));
+            entriesOut.writeInt(intern(setting.getTreePath(), strings, stringIndices));
+            entriesOut.writeInt(intern(setting.getCodec().id(), strings, stringIndices));
+            entriesOut.writeByte(kind);
+            entriesOut.writeInt(payload.size());
+            payload.writeTo(entriesOut);
+            entryCount++;
+        }
+
+        int count = entryCount;
+        AtomicFiles.write(path, stream -> {
+            var out = new DataOutputStream(new BufferedOutputStream(stream));
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(stamp[0]);
+            out.writeLong(stamp[1]);
+            out.writeInt(strings.size());
+            for (String string : strings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            out.writeInt(count);
+            entries.writeTo(out);
+            out.flush();
+        });
+    }
+
+    /**
+     * Opens a snapshot by memory-mapping it and reading its index.
+     *
+     * @param path The snapshot file.
+     * @return The opened snapshot.
+     * @throws IOException If the file cannot be read or is not a valid snapshot.
+     */
+    public static BinarySettingsSnapshot open(@NotNull Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION)
+                throw new IOException("Not a settings snapshot, or an unsupported version: " + path);
+
+            long sourceSize = buffer.getLong();
+            long sourceChecksum = buffer.getLong();
+
+            var strings = new String[buffer.getInt()];
+            for (int index = 0; index < strings.length; index++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                strings[index] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            int entryCount = buffer.getInt();
+            Map<String, Entry> entries = new HashMap<>(entryCount * 2);
+            for (int index = 0; index < entryCount; index++) {
+                String id = strings[buffer.getInt()];
+                String treePath = strings[buffer.getInt()];
+                String codecId = strings[buffer.getInt()];
+                byte kind = buffer.get();
+                int length = buffer.getInt();
+                entries.put(id, new Entry(treePath, codecId, kind, buffer.position(), length));
+                buffer.position(buffer.position() + length);
+            }
+
+            return new BinarySettingsSnapshot(buffer, sourceSize, sourceChecksum, entries);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException
+                 | NegativeArraySizeException exception) {
+            throw new IOException("Corrupt settings snapshot: " + path, exception);
+        }
+    }
+
+    /**
+     * Checks whether the JSON source has changed since the snapshot was generated.
+     * The source is read in full to compute its checksum unless its size already differs.
+     *
+     * @param source The JSON settings file the snapshot was generated from.
+     * @return True if the snapshot no longer matches the source, false otherwise.
+     * @throws IOException If the source cannot be inspected.
+     */
+    public boolean isStale(@NotNull Path source) throws IOException {
+        long[] stamp = stamp(source, this.sourceSize);
+        return stamp[0] != this.sourceSize || stamp[1] != this.sourceChecksum;
+    }
+
+    /**
+     * Checks whether the snapshot holds a value for the setting with the given ID.
+     *
+     * @param id The ID of the setting.
+     * @return True if the snapshot holds a value for the setting, false otherwise.
+     */
+    public boolean contains(String id) {
+        return this.entries.containsKey(id);
+    }
+
+    /**
+     * Gets the IDs of all settings held by the snapshot.
+     *
+     * @return An unmodifiable set of setting IDs.
+     */
+    public Set<String> getIds() {
+        return Collections.unmodifiableSet(this.entries.keySet());
+    }
+
+    /**
+     * Gets the tree path recorded for the setting with the given ID.
+     *
+     * @param id The ID of the setting.
+     * @return The tree path, or null if the snapshot holds no value for the setting.
+     */
+    public @Nullable String getTreePath(String id) {
+        Entry entry = this.entries.get(id);
+        return entry == null ? null : entry.treePath();
+    }
+
+    /**
+     * Decodes the snapshot's value for the given setting and loads it without notifying listeners.
+     * Nothing is loaded if the snapshot holds no value for the setting, or if the value was written by a different codec.
+     *
+     * @param setting The setting to load.
+     * @param <T>     The type of the setting's value.
+     * @return True if a value was loaded, false otherwise.
+     */
+    public <T> boolean apply(@NotNull Setting<T> setting) {
+        Supplier<T> decoder = decoder(setting);
+        if (decoder == null)
+            return false;
+
+        setting.loadValue(decoder.get());
+        return true;
+    }
+
+    /**
+     * Loads the snapshot's value for the given setting without decoding it.
+     * The value is decoded from the mapped snapshot when the setting is first read.
+     *
+     * @param setting The setting to load.
+     * @param <T>     The type of the setting's value.
+     * @return True if a value will be loaded, false if the snapshot holds no value for the setting,
+     * or if the value was written by a different codec.
+     * @see #apply(Setting)
+     */
+    public <T> boolean applyLazily(@NotNull Setting<T> setting) {
+        Supplier<T> decoder = decoder(setting);
+        if (decoder == null)
+            return false;
+
+        setting.loadValueLazily(decoder);
+        return true;
+    }
+
+    /**
+     * Loads the snapshot's values for all settings of the registry without decoding them.
+     * Each value is decoded from the mapped snapshot when its setting is first read.
+     *
+     * @param registry The registry whose settings are loaded.
+     * @see #applyLazily(Setting)
+     */
+    public void applyLazily(@NotNull SettingsRegistry registry) {
+        registry.forEach(this::applyLazily);
+    }
+
+    /**
+     * Creates a function decoding the snapshot's value for the given setting.
+     *
+     * @return The decoding function, or null if the snapshot holds no value the setting's codec can decode.
+     */
+    private <T> @Nullable Supplier<T> decoder(Setting<T> setting) {
+        Entry entry = this.entries.get(setting.getId());
+        SettingCodec<T, ?> codec = setting.getCodec();
+        if (entry == null || codec == null || !codec.id().equals(entry.codecId()))
+            return null;
+
+        ByteBuffer payload = this.buffer.slice(entry.offset(), entry.length());
+        return switch (entry.kind()) {
+            case KIND_NULL -> () -> null;
+            case KIND_BINARY -> codec.hasBinaryCodec() ? () -> codec.decodeBinary(payload.duplicate()) : null;
+            case KIND_JSON -> () -> codec.deserializeJson(
+                    JsonParser.parseString(StandardCharsets.UTF_8.decode(payload.duplicate()).toString()));
+            default -> null;
+        };
+    }
+
+    private static <T> byte encodeValue(Setting<T> setting, DataOutputStream out) throws IOException {
+        T value = setting.getValue();
+        SettingCodec<T, ?> codec = setting.getCodec();
+        if (value == null)
+            return KIND_NULL;
+
+        if (codec.hasBinaryCodec()) {
+            codec.encodeBinary(out, value);
+            return KIND_BINARY;
+        }
+
+        out.write(codec.serializeJson(value).toString().getBytes(StandardCharsets.UTF_8));
+        return KIND_JSON;
+    }
+
+    private static int intern(String string, List<String> strings, Map<String, Integer> indices) {
+        return indices.computeIfAbsent(string, key -> {
+            strings.add(key);
+            return strings.size() - 1;
+        });
+    }
+
+    /**
+     * Reads the size and checksum of the source recorded in the header of a snapshot file, without mapping it.
+     */
+    private static long[] readHeader(Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0)
+                    throw new IOException("Truncated settings snapshot: " + path);
+            }
+        }
+
+        header.flip();
+        if (header.getInt() != MAGIC || header.getShort() != VERSION)
+            throw new IOException("Not a settings snapshot, or an unsupported version: " + path);
+
+        return new long[]{header.getLong(), header.getLong()};
+    }
+
+    private static long[] stamp(Path source) throws IOException {
+        return stamp(source, -1);
+    }
+
+    /**
+     * Computes the size and checksum of the source.
+     *
+     * @param expectedSize The size the caller compares against, the checksum is skipped if the size differs from it,
+     *                     or -1 to always compute it.
+     */
+    private static long[] stamp(Path source, long expectedSize) throws IOException {
+        if (Files.notExists(source))
+            return new long[]{-1, -1};
+
+        long size = Files.size(source);
+        if (expectedSize >= 0 && size != expectedSize)
+            return new long[]{size, -1};
+
+        var checksum = new CRC32C();
+        try (InputStream in = Files.newInputStream(source)) {
+            byte[] chunk = new byte[8192];
+            int read;
+            while ((read = in.read(chunk)) >= 0) {
+                checksum.update(chunk, 0, read);
+            }
+        }
+
+        return new long[]{size, checksum.getValue()};
+    }
+
+    private record Entry(String treePath, String codecId, byte kind, int offset, int length) {
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.railroad.settings;
+
+/**
+ * Represents an operation that accepts a single boolean argument and returns no result.
+ * This is the primitive specialization of {@link java.util.function.Consumer} for {@code boolean},
+ * which the JDK does not provide.
+ *
+ * @see BooleanSetting
+ */
+@FunctionalInterface
+public interface BooleanConsumer {
+    /**
+     * Performs this operation on the given argument.
+     *
+     * @param value The input argument.
+     */
+    void accept(boolean value);
+}
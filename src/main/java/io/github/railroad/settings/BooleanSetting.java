@@ -0,0 +1,146 @@
+package io.github.railroad.settings;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * A setting specialized for {@code boolean} values.
+ * The value is stored unboxed and can be read and written through {@link #getAsBoolean()} and {@link #setBoolean(boolean)}
+ * without allocating. The generic {@link Setting} methods remain available and box on demand.
+ */
+public class BooleanSetting extends PrimitiveSetting<Boolean, BooleanConsumer> {
+    /**
+     * Constructs a new BooleanSetting instance using {@link DefaultSettingCodecs#BOOLEAN}.
+     *
+     * @param id           Unique identifier for the setting.
+     * @param treePath     The tree path for the setting.
+     * @param defaultValue The default value for the setting.
+     */
+    public BooleanSetting(String id, String treePath, boolean defaultValue) {
+        super(id, treePath, DefaultSettingCodecs.BOOLEAN, Boolean.class, defaultValue, toBits(defaultValue));
+    }
+
+    private static long toBits(boolean value) {
+        return value ? 1L : 0L;
+    }
+
+    /**
+     * Gets the current value of the setting without boxing.
+     *
+     * @return The current value of the setting.
+     */
+    public boolean getAsBoolean() {
+        return getBits() != 0L;
+    }
+
+    /**
+     * Gets the default value of the setting without boxing.
+     *
+     * @return The default value of the setting.
+     */
+    public boolean getDefaultAsBoolean() {
+        return getDefaultBits() != 0L;
+    }
+
+    /**
+     * Sets the value of the setting without boxing and notifies listeners if it changed.
+     * Generic listeners registered through {@link #addListener} receive a boxed value,
+     * primitive listeners registered through {@link #addBooleanListener} do not.
+     *
+     * @param value The new value of the setting.
+     */
+    public void setBoolean(boolean value) {
+        setBits(toBits(value));
+    }
+
+    /**
+     * Atomically sets the value of the setting to the given new value if the current value equals the expected value,
+     * without boxing, notifying listeners if it changed.
+     *
+     * @param expected The expected current value.
+     * @param newValue The new value.
+     * @return True if the value was set, false if the current value did not equal the expected value.
+     */
+    public boolean compareAndSetBoolean(boolean expected, boolean newValue) {
+        return compareAndSetBits(toBits(expected), toBits(newValue));
+    }
+
+    /**
+     * Atomically sets the value of the setting without boxing and notifies listeners if it changed.
+     *
+     * @param newValue The new value.
+     * @return The previous value of the setting.
+     */
+    public boolean getAndSetBoolean(boolean newValue) {
+        return getAndSetBits(toBits(newValue)) != 0L;
+    }
+
+    /**
+     * Adds a primitive listener that will be notified when the setting's value changes.
+     *
+     * @param listener The listener to add.
+     * @return A subscription that removes the listener when closed.
+     */
+    public Subscription addBooleanListener(@NotNull BooleanConsumer listener) {
+        return addPrimitiveListener(listener);
+    }
+
+    /**
+     * Removes a primitive listener from the setting.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeBooleanListener(@NotNull BooleanConsumer listener) {
+        removePrimitiveListener(listener);
+    }
+
+    @Override
+    Boolean box(long bits) {
+        return bits != 0L;
+    }
+
+    @Override
+    long unbox(Boolean value) {
+        return toBits(value);
+    }
+
+    @Override
+    void deliver(BooleanConsumer listener, long bits) {
+        listener.accept(bits != 0L);
+    }
+
+    @Override
+    public JsonElement toJson() {
+        return new JsonPrimitive(getAsBoolean());
+    }
+
+    @Override
+    public Boolean fromJson(@Nullable JsonElement json) {
+        loadBits(json == null ? getDefaultBits() : toBits(json.getAsBoolean()));
+        return getValue();
+    }
+
+    @Override
+    public void writeJson(JsonWriter writer) throws IOException {
+        writer.value(getAsBoolean());
+    }
+
+    @Override
+    public Boolean readJson(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            loadBits(getDefaultBits());
+        } else {
+            loadBits(toBits(reader.nextBoolean()));
+        }
+
+        return getValue();
+    }
+}
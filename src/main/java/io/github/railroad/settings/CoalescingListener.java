@@ -0,0 +1,70 @@
+package io.github.railroad.settings;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * A listener that folds bursts of changes into a single notification carrying the latest value.
+ * The first change after a notification schedules the next one; changes made before it runs only replace the
+ * value it will deliver, so they allocate nothing.
+ *
+ * @param <T> The type of the setting's value.
+ */
+final class CoalescingListener<T> implements DelegatingListener<T> {
+    private final Consumer<T> delegate;
+    private final Executor executor;
+    private final long delayNanos;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile T latest;
+
+    /**
+     * Constructs a new CoalescingListener.
+     *
+     * @param delegate The listener to notify.
+     * @param executor The executor that runs the listener.
+     * @param delay    The delay after the first change of a burst before the listener is run,
+     *                 or zero to run it as soon as the executor gets to it.
+     */
+    CoalescingListener(Consumer<T> delegate, Executor executor, Duration delay) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.delayNanos = delay.toNanos();
+    }
+
+    @Override
+    public Consumer<T> delegate() {
+        return this.delegate;
+    }
+
+    @Override
+    public void accept(T value) {
+        this.latest = value;
+        if (!this.scheduled.compareAndSet(false, true))
+            return;
+
+        if (this.delayNanos <= 0) {
+            this.executor.execute(this::deliver);
+        } else {
+            Timer.SCHEDULER.schedule(() -> this.executor.execute(this::deliver), this.delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private synchronized void deliver() {
+        // Clear the flag before reading, so that a change racing with delivery schedules another one
+        this.scheduled.set(false);
+        this.delegate.accept(this.latest);
+    }
+
+    private static final class Timer {
+        private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "Settings-Coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,496 @@
+package io.github.railroad.settings;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import javafx.collections.FXCollections;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.TextField;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Builds codecs for collections, maps, optionals and enums from the codecs of their elements.
+ * <p>
+ * The composite codecs encode and decode their elements directly through the element codecs, without reflection and
+ * without collecting the elements into intermediate copies: decoded collections are filled in place and handed out
+ * behind an unmodifiable view. Null elements are encoded as JSON {@code null}. An optional is encoded as an array
+ * holding its value, or as an empty array, so that an empty optional is not read back as a missing value and replaced
+ * by the default of its setting. A composite codec has a binary representation if its element codec has one, in
+ * which case every element is length-prefixed so that the element codec can decode it from its own slice of the
+ * buffer.
+ * <p>
+ * Collections, maps and optionals are edited as JSON text in a {@link TextField}, which is marked
+ * {@link DefaultSettingCodecs#INVALID invalid} while its text cannot be decoded; settings edited through such a field
+ * keep their value until the text is corrected. Enums are edited in a {@link ComboBox}.
+ *
+ * @see SettingCodec#listOf(SettingCodec)
+ * @see SettingCodec#enumByName(Class)
+ */
+final class CompositeSettingCodecs {
+    /**
+     * Factory creating composite codecs for {@code List}, {@code Collection}, {@code Set}, {@code Map} with string
+     * keys and {@code Optional} types whose element types can be resolved, and name-based codecs for enum classes.
+     */
+    static final SettingCodecRegistry.Factory FACTORY = CompositeSettingCodecs::create;
+
+    private static final int NULL_LENGTH = -1;
+
+    private CompositeSettingCodecs() {
+    }
+
+    static <E> SettingCodec<List<E>, TextField> listOf(@NotNull SettingCodec<E, ?> element) {
+        checkElement(element);
+        return collection("generic.list<" + element.id() + ">", element, ArrayList::new,
+                Collections::unmodifiableList, (first, second) -> elementsEquivalent(first, second, element));
+    }
+
+    static <E> SettingCodec<Set<E>, TextField> setOf(@NotNull SettingCodec<E, ?> element) {
+        checkElement(element);
+        // Sets are compared with equals, since matching equivalent elements of two sets is quadratic
+        return collection("generic.set<" + element.id() + ">", element, LinkedHashSet::newLinkedHashSet,
+                Collections::unmodifiableSet, Set::equals);
+    }
+
+    static <V> SettingCodec<Map<String, V>, TextField> mapOf(@NotNull SettingCodec<V, ?> value) {
+        checkElement(value);
+        Function<JsonElement, Map<String, V>> jsonDecoder = json -> {
+            JsonObject object = json.getAsJsonObject();
+            Map<String, V> map = LinkedHashMap.newLinkedHashMap(object.size());
+            for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                map.put(entry.getKey(), decodeElement(value, entry.getValue()));
+            }
+
+            return Collections.unmodifiableMap(map);
+        };
+
+        Function<Map<String, V>, JsonElement> jsonEncoder = map -> {
+            var object = new JsonObject();
+            for (Map.Entry<String, V> entry : map.entrySet()) {
+                object.add(entry.getKey(), encodeElement(value, entry.getValue()));
+            }
+
+            return object;
+        };
+
+        SettingCodec.Builder<Map<String, V>, TextField> builder =
+                textCodec("generic.map<" + value.id() + ">", jsonDecoder, jsonEncoder)
+                        .streamEncoder((writer, map) -> {
+                            writer.beginObject();
+                            for (Map.Entry<String, V> entry : map.entrySet()) {
+                                writer.name(entry.getKey());
+                                writeElement(writer, value, entry.getValue());
+                            }
+
+                            writer.endObject();
+                        })
+                        .streamDecoder(reader -> {
+                            Map<String, V> map = new LinkedHashMap<>();
+                            reader.beginObject();
+                            while (reader.hasNext()) {
+                                map.put(reader.nextName(), readElement(reader, value));
+                            }
+
+                            reader.endObject();
+                            return Collections.unmodifiableMap(map);
+                        })
+                        .equivalence((first, second) -> {
+                            if (first.size() != second.size())
+                                return false;
+
+                            for (Map.Entry<String, V> entry : first.entrySet()) {
+                                V other = second.get(entry.getKey());
+                                if ((other == null && !second.containsKey(entry.getKey()))
+                                        || !value.isEquivalent(entry.getValue(), other))
+                                    return false;
+                            }
+
+                            return true;
+                        });
+
+        if (value.hasBinaryCodec()) {
+            builder.binary((out, map) -> {
+                var scratch = new ByteArrayOutputStream();
+                var scratchOut = new DataOutputStream(scratch);
+                out.writeInt(map.size());
+                for (Map.Entry<String, V> entry : map.entrySet()) {
+                    DefaultSettingCodecs.writeString(out, entry.getKey());
+                    writeElement(out, value, entry.getValue(), scratch, scratchOut);
+                }
+            }, buffer -> {
+                int size = buffer.getInt();
+                Map<String, V> map = LinkedHashMap.newLinkedHashMap(size);
+                for (int index = 0; index < size; index++) {
+                    map.put(DefaultSettingCodecs.readString(buffer), readElement(buffer, value));
+                }
+
+                return Collections.unmodifiableMap(map);
+            });
+        }
+
+        return builder.build();
+    }
+
+    static <E> SettingCodec<Optional<E>, TextField> optionalOf(@NotNull SettingCodec<E, ?> element) {
+        checkElement(element);
+        Function<JsonElement, Optional<E>> jsonDecoder = json -> {
+            if (json.isJsonNull())
+                return Optional.empty();
+
+            JsonArray array = json.getAsJsonArray();
+            if (array.size() > 1)
+                throw new JsonParseException("Expected an optional to hold at most one value, but got " + array.size());
+
+            return array.isEmpty() ? Optional.empty() : Optional.ofNullable(decodeElement(element, array.get(0)));
+        };
+
+        Function<Optional<E>, JsonElement> jsonEncoder = optional -> {
+            var array = new JsonArray(1);
+            if (optional.isPresent()) {
+                array.add(element.serializeJson(optional.get()));
+            }
+
+            return array;
+        };
+
+        SettingCodec.Builder<Optional<E>, TextField> builder =
+                textCodec("generic.optional<" + element.id() + ">", jsonDecoder, jsonEncoder)
+                        .streamEncoder((writer, optional) -> {
+                            writer.beginArray();
+                            if (optional.isPresent()) {
+                                element.encode(writer, optional.get());
+                            }
+
+                            writer.endArray();
+                        })
+                        .streamDecoder(reader -> {
+                            if (reader.peek() == JsonToken.NULL) {
+                                reader.nextNull();
+                                return Optional.empty();
+                            }
+
+                            reader.beginArray();
+                            Optional<E> optional = reader.hasNext()
+                                    ? Optional.ofNullable(readElement(reader, element))
+                                    : Optional.empty();
+                            if (reader.hasNext())
+                                throw new JsonParseException("Expected an optional to hold at most one value at " + reader.getPath());
+
+                            reader.endArray();
+                            return optional;
+                        })
+                        .equivalence((first, second) -> first.isPresent() == second.isPresent()
+                                && (first.isEmpty() || element.isEquivalent(first.get(), second.get())));
+
+        if (element.hasBinaryCodec()) {
+            builder.binary((out, optional) -> {
+                out.writeBoolean(optional.isPresent());
+                if (optional.isPresent()) {
+                    element.encodeBinary(out, optional.get());
+                }
+            }, buffer -> buffer.get() == 0 ? Optional.empty() : Optional.ofNullable(element.decodeBinary(buffer.slice())));
+        }
+
+        return builder.build();
+    }
+
+    static <E extends Enum<E>> SettingCodec<E, ComboBox<E>> enumByName(@NotNull Class<E> type) {
+        E[] constants = enumConstants(type);
+        var names = new JsonPrimitive[constants.length];
+        Map<String, E> byName = HashMap.newHashMap(constants.length);
+        for (E constant : constants) {
+            names[constant.ordinal()] = new JsonPrimitive(constant.name());
+            byName.put(constant.name(), constant);
+        }
+
+        Function<String, E> lookup = name -> {
+            E constant = byName.get(name);
+            if (constant == null)
+                throw new JsonParseException("No constant named '" + name + "' in " + type.getName());
+
+            return constant;
+        };
+
+        return enumCodec("generic.enum<" + type.getName() + ">", constants)
+                .jsonDecoder(json -> lookup.apply(json.getAsString()))
+                .jsonEncoder(constant -> names[constant.ordinal()])
+                .streamDecoder(reader -> lookup.apply(reader.nextString()))
+                .streamEncoder((writer, constant) -> writer.value(constant.name()))
+                .binary((out, constant) -> DefaultSettingCodecs.writeString(out, constant.name()),
+                        buffer -> lookup.apply(DefaultSettingCodecs.readString(buffer)))
+                .build();
+    }
+
+    static <E extends Enum<E>> SettingCodec<E, ComboBox<E>> enumByOrdinal(@NotNull Class<E> type) {
+        E[] constants = enumConstants(type);
+        var ordinals = new JsonPrimitive[constants.length];
+        for (E constant : constants) {
+            ordinals[constant.ordinal()] = new JsonPrimitive(constant.ordinal());
+        }
+
+        IntFunction<E> lookup = ordinal -> {
+            if (ordinal < 0 || ordinal >= constants.length)
+                throw new JsonParseException("No constant with ordinal " + ordinal + " in " + type.getName());
+
+            return constants[ordinal];
+        };
+
+        return enumCodec("generic.enum.ordinal<" + type.getName() + ">", constants)
+                .jsonDecoder(json -> lookup.apply(json.getAsInt()))
+                .jsonEncoder(constant -> ordinals[constant.ordinal()])
+                .streamDecoder(reader -> lookup.apply(reader.nextInt()))
+                .streamEncoder((writer, constant) -> writer.value(constant.ordinal()))
+                .binary((out, constant) -> out.writeInt(constant.ordinal()), buffer -> lookup.apply(buffer.getInt()))
+                .build();
+    }
+
+    private static <E, C extends Collection<E>> SettingCodec<C, TextField> collection(
+            String id, SettingCodec<E, ?> element, IntFunction<C> factory, Function<C, C> view,
+            BiPredicate<C, C> equivalence) {
+        Function<JsonElement, C> jsonDecoder = json -> {
+            JsonArray array = json.getAsJsonArray();
+            C collection = factory.apply(array.size());
+            for (JsonElement item : array) {
+                collection.add(decodeElement(element, item));
+            }
+
+            return view.apply(collection);
+        };
+
+        Function<C, JsonElement> jsonEncoder = collection -> {
+            var array = new JsonArray(collection.size());
+            for (E item : collection) {
+                array.add(encodeElement(element, item));
+            }
+
+            return array;
+        };
+
+        SettingCodec.Builder<C, TextField> builder = textCodec(id, jsonDecoder, jsonEncoder)
+                .streamEncoder((writer, collection) -> {
+                    writer.beginArray();
+                    for (E item : collection) {
+                        writeElement(writer, element, item);
+                    }
+
+                    writer.endArray();
+                })
+                .streamDecoder(reader -> {
+                    C collection = factory.apply(10);
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        collection.add(readElement(reader, element));
+                    }
+
+                    reader.endArray();
+                    return view.apply(collection);
+                })
+                .equivalence(equivalence);
+
+        if (element.hasBinaryCodec()) {
+            builder.binary((out, collection) -> {
+                var scratch = new ByteArrayOutputStream();
+                var scratchOut = new DataOutputStream(scratch);
+                out.writeInt(collection.size());
+                for (E item : collection) {
+                    writeElement(out, element, item, scratch, scratchOut);
+                }
+            }, buffer -> {
+                int size = buffer.getInt();
+                C collection = factory.apply(size);
+                for (int index = 0; index < size; index++) {
+                    collection.add(readElement(buffer, element));
+                }
+
+                return view.apply(collection);
+            });
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Creates a builder for a codec edited as JSON text, with its JSON and node functions set.
+     * Text that cannot be decoded is reported as {@link SettingCodec#isNodeValid(javafx.scene.Node) invalid} and read
+     * as null, so that settings keep their value until the text is corrected.
+     */
+    private static <T> SettingCodec.Builder<T, TextField> textCodec(String id, Function<JsonElement, T> jsonDecoder,
+                                                                   Function<T, JsonElement> jsonEncoder) {
+        Function<String, T> parser = text -> {
+            try {
+                return jsonDecoder.apply(JsonParser.parseString(text));
+            } catch (RuntimeException exception) {
+                return null;
+            }
+        };
+
+        return SettingCodec.<T, TextField>builder()
+                .id(id)
+                .jsonDecoder(jsonDecoder)
+                .jsonEncoder(jsonEncoder)
+                .nodeToValue(textField -> parser.apply(textField.getText()))
+                .nodeValidator(textField -> parser.apply(textField.getText()) != null)
+                .valueToNode((value, textField) -> textField.setText(jsonEncoder.apply(value).toString()))
+                .createNode(value -> DefaultSettingCodecs.validatedTextField(jsonEncoder.apply(value).toString(),
+                        text -> parser.apply(text) != null));
+    }
+
+    private static <E extends Enum<E>> SettingCodec.Builder<E, ComboBox<E>> enumCodec(String id, E[] constants) {
+        return SettingCodec.<E, ComboBox<E>>builder()
+                .id(id)
+                .nodeToValue(ComboBox::getValue)
+                .valueToNode((constant, comboBox) -> comboBox.setValue(constant))
+                .equivalence((first, second) -> first == second)
+                .createNode(constant -> {
+                    var comboBox = new ComboBox<>(FXCollections.observableArrayList(constants));
+                    comboBox.setValue(constant);
+                    return comboBox;
+                });
+    }
+
+    private static <E extends Enum<E>> E[] enumConstants(Class<E> type) {
+        if (type == null)
+            throw new IllegalArgumentException("Enum type cannot be null");
+
+        E[] constants = type.getEnumConstants();
+        if (constants == null)
+            throw new IllegalArgumentException(type.getName() + " is not an enum type");
+
+        return constants;
+    }
+
+    private static void checkElement(SettingCodec<?, ?> element) {
+        if (element == null)
+            throw new IllegalArgumentException("Element codec cannot be null");
+    }
+
+    private static <E> boolean elementsEquivalent(List<E> first, List<E> second, SettingCodec<E, ?> element) {
+        if (first.size() != second.size())
+            return false;
+
+        Iterator<E> firstItems = first.iterator();
+        Iterator<E> secondItems = second.iterator();
+        while (firstItems.hasNext()) {
+            if (!element.isEquivalent(firstItems.next(), secondItems.next()))
+                return false;
+        }
+
+        return true;
+    }
+
+    private static <E> E decodeElement(SettingCodec<E, ?> element, JsonElement json) {
+        return json.isJsonNull() ? null : element.deserializeJson(json);
+    }
+
+    private static <E> JsonElement encodeElement(SettingCodec<E, ?> element, E value) {
+        return value == null ? JsonNull.INSTANCE : element.serializeJson(value);
+    }
+
+    private static <E> void writeElement(JsonWriter writer, SettingCodec<E, ?> element, E value) throws IOException {
+        if (value == null) {
+            writer.nullValue();
+        } else {
+            element.encode(writer, value);
+        }
+    }
+
+    private static <E> E readElement(JsonReader reader, SettingCodec<E, ?> element) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+
+        return element.decode(reader);
+    }
+
+    /**
+     * Writes an element prefixed with its length, encoding it into the scratch buffer first.
+     */
+    private static <E> void writeElement(DataOutput out, SettingCodec<E, ?> element, E value,
+                                         ByteArrayOutputStream scratch, DataOutputStream scratchOut) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+
+        scratch.reset();
+        element.encodeBinary(scratchOut, value);
+        out.writeInt(scratch.size());
+        if (out instanceof OutputStream stream) {
+            scratch.writeTo(stream);
+        } else {
+            out.write(scratch.toByteArray());
+        }
+    }
+
+    /**
+     * Reads a length-prefixed element, decoding it from a slice of the buffer and advancing past it.
+     */
+    private static <E> E readElement(ByteBuffer buffer, SettingCodec<E, ?> element) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH)
+            return null;
+
+        int position = buffer.position();
+        E value = element.decodeBinary(buffer.slice(position, length));
+        buffer.position(position + length);
+        return value;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static SettingCodec<?, ?> create(Type type, SettingCodecRegistry registry) {
+        if (type instanceof Class<?> clazz)
+            return clazz.isEnum() ? enumByName((Class) clazz) : null;
+
+        if (!(type instanceof ParameterizedType parameterized))
+            return null;
+
+        Type raw = parameterized.getRawType();
+        Type[] arguments = parameterized.getActualTypeArguments();
+        if (raw == Map.class) {
+            SettingCodec<?, ?> value = arguments[0] == String.class ? registry.find(arguments[1]) : null;
+            return value == null ? null : mapOf(value);
+        }
+
+        if (raw != List.class && raw != Collection.class && raw != Set.class && raw != Optional.class)
+            return null;
+
+        SettingCodec<?, ?> element = registry.find(arguments[0]);
+        if (element == null)
+            return null;
+
+        if (raw == Set.class)
+            return setOf(element);
+
+        return raw == Optional.class ? optionalOf(element) : listOf(element);
+    }
+}
@@ -2,15 +2,31 @@ package io.github.railroad.settings;
 
 import com.google.gson.JsonElement;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import javafx.css.PseudoClass;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.TextField;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Predicate;
+
 /**
  * Default setting codecs for common data types used in the Railroad IDE.
  * These codecs provide a way to convert between Java objects and their
  * corresponding UI components, as well as JSON representations.
  */
 public class DefaultSettingCodecs {
+    /**
+     * Pseudo-class set on the text fields of numeric and composite codecs while their text cannot be decoded,
+     * so that stylesheets can highlight them with {@code :invalid}.
+     * The codecs also report such fields as {@link SettingCodec#isNodeValid(javafx.scene.Node) invalid}, so their
+     * settings keep the last valid value until the text is corrected.
+     */
+    public static final PseudoClass INVALID = PseudoClass.getPseudoClass("invalid");
+
     /**
      * Default setting codec for boolean values, using a CheckBox as the UI component.
      */
@@ -20,6 +36,10 @@ public class DefaultSettingCodecs {
                     .valueToNode((selected, checkBox) -> checkBox.setSelected(selected))
                     .jsonDecoder(JsonElement::getAsBoolean)
                     .jsonEncoder(JsonPrimitive::new)
+                    .streamDecoder(JsonReader::nextBoolean)
+                    .streamEncoder((writer, value) -> writer.value(value))
+                    .binary(DataOutput::writeBoolean, buffer -> buffer.get() != 0)
+                    .equivalence((first, second) -> first.booleanValue() == second.booleanValue())
                     .createNode(selected -> {
                         var checkBox = new CheckBox();
                         checkBox.setSelected(selected);
@@ -36,6 +56,10 @@ public class DefaultSettingCodecs {
                     .valueToNode((text, textField) -> textField.setText(text))
                     .jsonDecoder(JsonElement::getAsString)
                     .jsonEncoder(JsonPrimitive::new)
+                    .streamDecoder(JsonReader::nextString)
+                    .streamEncoder((writer, value) -> writer.value(value))
+                    .binary(DefaultSettingCodecs::writeString, DefaultSettingCodecs::readString)
+                    .equivalence(String::equals)
                     .createNode(text -> {
                         var textField = new TextField();
                         textField.setText(text);
@@ -48,21 +72,17 @@ public class DefaultSettingCodecs {
      */
     public static final SettingCodec<Integer, TextField> INTEGER =
             SettingCodec.builder("generic.integer", Integer.class, TextField.class)
-                    .nodeToValue(textField -> {
-                        try {
-                            return Integer.parseInt(textField.getText());
-                        } catch (NumberFormatException e) {
-                            return 0; // Default value if parsing fails
-                        }
-                    })
+                    .nodeToValue(textField -> NumberParsing.isInt(textField.getText())
+                            ? Integer.valueOf(NumberParsing.parseInt(textField.getText(), 0)) : null)
+                    .nodeValidator(textField -> NumberParsing.isInt(textField.getText()))
                     .valueToNode((value, textField) -> textField.setText(String.valueOf(value)))
                     .jsonDecoder(JsonElement::getAsInt)
                     .jsonEncoder(JsonPrimitive::new)
-                    .createNode(value -> {
-                        var textField = new TextField();
-                        textField.setText(String.valueOf(value));
-                        return textField;
-                    })
+                    .streamDecoder(JsonReader::nextInt)
+                    .streamEncoder((writer, value) -> writer.value(value.intValue()))
+                    .binary(DataOutput::writeInt, ByteBuffer::getInt)
+                    .equivalence((first, second) -> first.intValue() == second.intValue())
+                    .createNode(value -> validatedTextField(String.valueOf(value), NumberParsing::isInt))
                     .build();
 
     /**
@@ -70,21 +90,17 @@ public class DefaultSettingCodecs {
      */
     public static final SettingCodec<Double, TextField> DOUBLE =
             SettingCodec.builder("generic.double", Double.class, TextField.class)
-                    .nodeToValue(textField -> {
-                        try {
-                            return Double.parseDouble(textField.getText());
-                        } catch (NumberFormatException e) {
-                            return 0.0; // Default value if parsing fails
-                        }
-                    })
+                    .nodeToValue(textField -> NumberParsing.isDouble(textField.getText())
+                            ? Double.valueOf(NumberParsing.parseDouble(textField.getText(), 0.0)) : null)
+                    .nodeValidator(textField -> NumberParsing.isDouble(textField.getText()))
                     .valueToNode((value, textField) -> textField.setText(String.valueOf(value)))
                     .jsonDecoder(JsonElement::getAsDouble)
                     .jsonEncoder(JsonPrimitive::new)
-                    .createNode(value -> {
-                        var textField = new TextField();
-                        textField.setText(String.valueOf(value));
-                        return textField;
-                    })
+                    .streamDecoder(JsonReader::nextDouble)
+                    .streamEncoder((writer, value) -> writer.value(value.doubleValue()))
+                    .binary(DataOutput::writeDouble, ByteBuffer::getDouble)
+                    .equivalence((first, second) -> Double.doubleToLongBits(first) == Double.doubleToLongBits(second))
+                    .createNode(value -> validatedTextField(String.valueOf(value), NumberParsing::isDouble))
                     .build();
 
     /**
@@ -92,21 +108,17 @@ public class DefaultSettingCodecs {
      */
     public static final SettingCodec<Float, TextField> FLOAT =
             SettingCodec.builder("generic.float", Float.class, TextField.class)
-                    .nodeToValue(textField -> {
-                        try {
-                            return Float.parseFloat(textField.getText());
-                        } catch (NumberFormatException e) {
-                            return 0.0f; // Default value if parsing fails
-                        }
-                    })
+                    .nodeToValue(textField -> NumberParsing.isDouble(textField.getText())
+                            ? Float.valueOf(NumberParsing.parseFloat(textField.getText(), 0.0f)) : null)
+                    .nodeValidator(textField -> NumberParsing.isDouble(textField.getText()))
                     .valueToNode((value, textField) -> textField.setText(String.valueOf(value)))
                     .jsonDecoder(JsonElement::getAsFloat)
                     .jsonEncoder(JsonPrimitive::new)
-                    .createNode(value -> {
-                        var textField = new TextField();
-                        textField.setText(String.valueOf(value));
-                        return textField;
-                    })
+                    .streamDecoder(reader -> (float) reader.nextDouble())
+                    .streamEncoder((writer, value) -> writer.value(value.floatValue()))
+                    .binary(DataOutput::writeFloat, ByteBuffer::getFloat)
+                    .equivalence((first, second) -> Float.floatToIntBits(first) == Float.floatToIntBits(second))
+                    .createNode(value -> validatedTextField(String.valueOf(value), NumberParsing::isDouble))
                     .build();
 
     /**
@@ -114,20 +126,36 @@ public class DefaultSettingCodecs {
      */
     public static final SettingCodec<Long, TextField> LONG =
             SettingCodec.builder("generic.long", Long.class, TextField.class)
-                    .nodeToValue(textField -> {
-                        try {
-                            return Long.parseLong(textField.getText());
-                        } catch (NumberFormatException e) {
-                            return 0L; // Default value if parsing fails
-                        }
-                    })
+                    .nodeToValue(textField -> NumberParsing.isLong(textField.getText())
+                            ? Long.valueOf(NumberParsing.parseLong(textField.getText(), 0L)) : null)
+                    .nodeValidator(textField -> NumberParsing.isLong(textField.getText()))
                     .valueToNode((value, textField) -> textField.setText(String.valueOf(value)))
                     .jsonDecoder(JsonElement::getAsLong)
                     .jsonEncoder(JsonPrimitive::new)
-                    .createNode(value -> {
-                        var textField = new TextField();
-                        textField.setText(String.valueOf(value));
-                        return textField;
-                    })
+                    .streamDecoder(JsonReader::nextLong)
+                    .streamEncoder((writer, value) -> writer.value(value.longValue()))
+                    .binary(DataOutput::writeLong, ByteBuffer::getLong)
+                    .equivalence((first, second) -> first.longValue() == second.longValue())
+                    .createNode(value -> validatedTextField(String.valueOf(value), NumberParsing::isLong))
                     .build();
+
+    static TextField validatedTextField(String text, Predicate<String> validator) {
+        var textField = new TextField();
+        textField.textProperty().addListener((observable, oldText, newText) ->
+                textField.pseudoClassStateChanged(INVALID, !validator.test(newText)));
+        textField.setText(text);
+        return textField;
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
 }
@@ -0,0 +1,31 @@
+package io.github.railroad.settings;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A listener that wraps a listener registered by the user, changing how or when it is notified.
+ * Wrappers stay removable through the listener they wrap.
+ *
+ * @param <T> The type of the setting's value.
+ */
+interface DelegatingListener<T> extends Consumer<T> {
+    /**
+     * Gets the listener that was registered by the user.
+     *
+     * @return The wrapped listener.
+     */
+    Consumer<T> delegate();
+
+    /**
+     * Checks whether a registered listener is, or wraps, the given listener.
+     *
+     * @param registered The listener as stored by the setting.
+     * @param listener   The listener to look for.
+     * @return True if the registered listener is or wraps the listener, false otherwise.
+     */
+    static boolean matches(Consumer<?> registered, Object listener) {
+        return Objects.equals(registered, listener)
+                || registered instanceof DelegatingListener<?> delegating && Objects.equals(delegating.delegate(), listener);
+    }
+}
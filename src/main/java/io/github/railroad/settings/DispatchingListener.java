@@ -0,0 +1,59 @@
+package io.github.railroad.settings;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * A listener that hands its notifications to an executor instead of running them on the notifying thread.
+ * Notifications are queued and drained by at most one task at a time, so the delegate sees every value in order
+ * and is never invoked concurrently, even on executors that run tasks in parallel.
+ *
+ * @param <T> The type of the setting's value.
+ */
+final class DispatchingListener<T> implements DelegatingListener<T> {
+    private static final Object NULL = new Object();
+
+    private final Consumer<T> delegate;
+    private final Executor executor;
+    private final Queue<Object> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    DispatchingListener(Consumer<T> delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public Consumer<T> delegate() {
+        return this.delegate;
+    }
+
+    @Override
+    public void accept(T value) {
+        this.pending.add(value == null ? NULL : value);
+        if (this.scheduled.compareAndSet(false, true)) {
+            this.executor.execute(this::drain);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drain() {
+        do {
+            Object value;
+            while ((value = this.pending.poll()) != null) {
+                try {
+                    this.delegate.accept(value == NULL ? null : (T) value);
+                } catch (RuntimeException exception) {
+                    Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, exception);
+                }
+            }
+
+            this.scheduled.set(false);
+            // A value may have been queued after the last poll but before the flag was cleared
+        } while (!this.pending.isEmpty() && this.scheduled.compareAndSet(false, true));
+    }
+}
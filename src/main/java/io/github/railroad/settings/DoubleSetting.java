@@ -0,0 +1,175 @@
+package io.github.railroad.settings;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A setting specialized for {@code double} values.
+ * The value is stored unboxed and can be read and written through {@link #getAsDouble()} and {@link #setDouble(double)}
+ * without allocating. The generic {@link Setting} methods remain available and box on demand.
+ */
+public class DoubleSetting extends PrimitiveSetting<Double, DoubleConsumer> {
+    /**
+     * Constructs a new DoubleSetting instance using {@link DefaultSettingCodecs#DOUBLE}.
+     *
+     * @param id           Unique identifier for the setting.
+     * @param treePath     The tree path for the setting.
+     * @param defaultValue The default value for the setting.
+     */
+    public DoubleSetting(String id, String treePath, double defaultValue) {
+        super(id, treePath, DefaultSettingCodecs.DOUBLE, Double.class, defaultValue, Double.doubleToRawLongBits(defaultValue));
+    }
+
+    /**
+     * Gets the current value of the setting without boxing.
+     *
+     * @return The current value of the setting.
+     */
+    public double getAsDouble() {
+        return Double.longBitsToDouble(getBits());
+    }
+
+    /**
+     * Gets the default value of the setting without boxing.
+     *
+     * @return The default value of the setting.
+     */
+    public double getDefaultAsDouble() {
+        return Double.longBitsToDouble(getDefaultBits());
+    }
+
+    /**
+     * Sets the value of the setting without boxing and notifies listeners if it changed.
+     * Generic listeners registered through {@link #addListener} receive a boxed value,
+     * primitive listeners registered through {@link #addDoubleListener} do not.
+     *
+     * @param value The new value of the setting.
+     */
+    public void setDouble(double value) {
+        setBits(Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Atomically sets the value of the setting to the given new value if the current value equals the expected value,
+     * without boxing, notifying listeners if it changed.
+     * The current value is compared with the expected value by bit pattern, as with
+     * {@link Double#doubleToRawLongBits(double)}, so a NaN only matches the exact same NaN. Whether the value changed
+     * is decided as with {@link Double#doubleToLongBits(double)}, which treats all NaNs as equal.
+     *
+     * @param expected The expected current value.
+     * @param newValue The new value.
+     * @return True if the value was set, false if the current value did not equal the expected value.
+     */
+    public boolean compareAndSetDouble(double expected, double newValue) {
+        return compareAndSetBits(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(newValue));
+    }
+
+    /**
+     * Atomically sets the value of the setting without boxing and notifies listeners if it changed.
+     *
+     * @param newValue The new value.
+     * @return The previous value of the setting.
+     */
+    public double getAndSetDouble(double newValue) {
+        return Double.longBitsToDouble(getAndSetBits(Double.doubleToRawLongBits(newValue)));
+    }
+
+    /**
+     * Atomically updates the value of the setting with the result of the given function and notifies listeners
+     * if it changed. The function may be applied more than once if other threads update the value concurrently,
+     * so it should be free of side effects.
+     *
+     * @param updater The function computing the new value from the current value.
+     * @return The updated value.
+     */
+    public double updateAndGetDouble(@NotNull DoubleUnaryOperator updater) {
+        resolvePendingValue();
+        while (true) {
+            long current = storedBits();
+            double next = updater.applyAsDouble(Double.longBitsToDouble(current));
+            if (updateBits(current, Double.doubleToRawLongBits(next)))
+                return next;
+        }
+    }
+
+    /**
+     * Adds a primitive listener that will be notified when the setting's value changes.
+     *
+     * @param listener The listener to add.
+     * @return A subscription that removes the listener when closed.
+     */
+    public Subscription addDoubleListener(@NotNull DoubleConsumer listener) {
+        return addPrimitiveListener(listener);
+    }
+
+    /**
+     * Removes a primitive listener from the setting.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeDoubleListener(@NotNull DoubleConsumer listener) {
+        removePrimitiveListener(listener);
+    }
+
+    @Override
+    Double box(long bits) {
+        return Double.longBitsToDouble(bits);
+    }
+
+    @Override
+    long unbox(Double value) {
+        return Double.doubleToRawLongBits(value);
+    }
+
+    @Override
+    void deliver(DoubleConsumer listener, long bits) {
+        listener.accept(Double.longBitsToDouble(bits));
+    }
+
+    /**
+     * Compares values as {@link Double#doubleToLongBits(double)} does, so that writing a NaN over a NaN with
+     * a different bit pattern is not a change.
+     */
+    @Override
+    boolean isSameValue(long first, long second) {
+        return first == second
+                || Double.isNaN(Double.longBitsToDouble(first)) && Double.isNaN(Double.longBitsToDouble(second));
+    }
+
+    @Override
+    public JsonElement toJson() {
+        return new JsonPrimitive(getAsDouble());
+    }
+
+    @Override
+    public Double fromJson(@Nullable JsonElement json) {
+        loadBits(json == null ? getDefaultBits() : Double.doubleToRawLongBits(json.getAsDouble()));
+        return getValue();
+    }
+
+    @Override
+    public void writeJson(JsonWriter writer) throws IOException {
+        writer.value(getAsDouble());
+    }
+
+    @Override
+    public Double readJson(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            loadBits(getDefaultBits());
+        } else {
+            loadBits(Double.doubleToRawLongBits(reader.nextDouble()));
+        }
+
+        return getValue();
+    }
+}
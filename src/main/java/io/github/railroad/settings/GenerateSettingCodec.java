@@ -0,0 +1,48 @@
+package io.github.railroad.settings;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a record for which a {@link SettingCodec} is generated at compile time.
+ * <p>
+ * For a record {@code Editor}, the processor in {@code io.github.railroad.settings.processor} generates the class
+ * {@code EditorCodec} next to it, whose {@code CODEC} constant encodes the record as a JSON object with one property
+ * per component, and creates a form with one row per component as its node. Nested records are named after their
+ * enclosing types, so {@code Outer.Inner} gets {@code Outer_InnerCodec}. The generated code calls the record's
+ * accessors and canonical constructor directly, so no reflection happens at runtime.
+ * <p>
+ * The codecs of the components are resolved when the generated class is compiled:
+ * <ul>
+ *     <li>primitives, their boxes and strings use the {@link DefaultSettingCodecs},</li>
+ *     <li>{@code List}, {@code Set}, {@code Map} with string keys and {@code Optional} use the
+ *     {@link SettingCodec#listOf(SettingCodec) composite codecs} of their elements,</li>
+ *     <li>enums are encoded by name,</li>
+ *     <li>records annotated with this annotation use their generated codec,</li>
+ *     <li>any other class uses the codec registered for it in the {@link SettingCodecRegistry#getDefault() default
+ *     registry}. The processor reports such components in a note, as the codec is looked up when the generated class
+ *     is initialized: it must be registered before the generated codec is first used, or the initialization fails
+ *     with an {@link IllegalStateException} naming the component.</li>
+ * </ul>
+ * Components that are missing from the JSON, or are {@code null}, are decoded as {@code null}, as an empty
+ * {@code Optional}, or as zero or false for primitives. In the form, a {@code null} component is shown as zero or false
+ * for boxes, and as an empty value for strings and collections. The form is only
+ * {@link SettingCodec#isNodeValid(javafx.scene.Node) valid} while every row is.
+ * <p>
+ * The processor is registered as a service of this library, so it only needs to be added to the
+ * {@code annotationProcessor} configuration of the build that declares the records.
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateSettingCodec {
+    /**
+     * The ID of the generated codec.
+     *
+     * @return The ID, or an empty string to use the qualified name of the record.
+     */
+    String id() default "";
+}
@@ -0,0 +1,162 @@
+package io.github.railroad.settings;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A setting specialized for {@code int} values.
+ * The value is stored unboxed and can be read and written through {@link #getAsInt()} and {@link #setInt(int)}
+ * without allocating. The generic {@link Setting} methods remain available and box on demand.
+ */
+public class IntSetting extends PrimitiveSetting<Integer, IntConsumer> {
+    /**
+     * Constructs a new IntSetting instance using {@link DefaultSettingCodecs#INTEGER}.
+     *
+     * @param id           Unique identifier for the setting.
+     * @param treePath     The tree path for the setting.
+     * @param defaultValue The default value for the setting.
+     */
+    public IntSetting(String id, String treePath, int defaultValue) {
+        super(id, treePath, DefaultSettingCodecs.INTEGER, Integer.class, defaultValue, defaultValue);
+    }
+
+    /**
+     * Gets the current value of the setting without boxing.
+     *
+     * @return The current value of the setting.
+     */
+    public int getAsInt() {
+        return (int) getBits();
+    }
+
+    /**
+     * Gets the default value of the setting without boxing.
+     *
+     * @return The default value of the setting.
+     */
+    public int getDefaultAsInt() {
+        return (int) getDefaultBits();
+    }
+
+    /**
+     * Sets the value of the setting without boxing and notifies listeners if it changed.
+     * Generic listeners registered through {@link #addListener} receive a boxed value,
+     * primitive listeners registered through {@link #addIntListener} do not.
+     *
+     * @param value The new value of the setting.
+     */
+    public void setInt(int value) {
+        setBits(value);
+    }
+
+    /**
+     * Atomically sets the value of the setting to the given new value if the current value equals the expected value,
+     * without boxing, notifying listeners if it changed.
+     *
+     * @param expected The expected current value.
+     * @param newValue The new value.
+     * @return True if the value was set, false if the current value did not equal the expected value.
+     */
+    public boolean compareAndSetInt(int expected, int newValue) {
+        return compareAndSetBits(expected, newValue);
+    }
+
+    /**
+     * Atomically sets the value of the setting without boxing and notifies listeners if it changed.
+     *
+     * @param newValue The new value.
+     * @return The previous value of the setting.
+     */
+    public int getAndSetInt(int newValue) {
+        return (int) getAndSetBits(newValue);
+    }
+
+    /**
+     * Atomically updates the value of the setting with the result of the given function and notifies listeners
+     * if it changed. The function may be applied more than once if other threads update the value concurrently,
+     * so it should be free of side effects.
+     *
+     * @param updater The function computing the new value from the current value.
+     * @return The updated value.
+     */
+    public int updateAndGetInt(@NotNull IntUnaryOperator updater) {
+        resolvePendingValue();
+        while (true) {
+            int current = (int) storedBits();
+            int next = updater.applyAsInt(current);
+            if (updateBits(current, next))
+                return next;
+        }
+    }
+
+    /**
+     * Adds a primitive listener that will be notified when the setting's value changes.
+     *
+     * @param listener The listener to add.
+     * @return A subscription that removes the listener when closed.
+     */
+    public Subscription addIntListener(@NotNull IntConsumer listener) {
+        return addPrimitiveListener(listener);
+    }
+
+    /**
+     * Removes a primitive listener from the setting.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeIntListener(@NotNull IntConsumer listener) {
+        removePrimitiveListener(listener);
+    }
+
+    @Override
+    Integer box(long bits) {
+        return (int) bits;
+    }
+
+    @Override
+    long unbox(Integer value) {
+        return value;
+    }
+
+    @Override
+    void deliver(IntConsumer listener, long bits) {
+        listener.accept((int) bits);
+    }
+
+    @Override
+    public JsonElement toJson() {
+        return new JsonPrimitive(getAsInt());
+    }
+
+    @Override
+    public Integer fromJson(@Nullable JsonElement json) {
+        loadBits(json == null ? getDefaultBits() : json.getAsInt());
+        return getValue();
+    }
+
+    @Override
+    public void writeJson(JsonWriter writer) throws IOException {
+        writer.value(getAsInt());
+    }
+
+    @Override
+    public Integer readJson(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            loadBits(getDefaultBits());
+        } else {
+            loadBits(reader.nextInt());
+        }
+
+        return getValue();
+    }
+}
@@ -0,0 +1,344 @@
+package io.github.railroad.settings;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Persists the settings of a {@link SettingsRegistry} as a JSON snapshot plus an append-only change journal.
+ * <p>
+ * Every change of a setting appends a single line holding the setting's ID and its value, encoded with
+ * {@link SettingCodec#serializeJson(Object)}, so saving costs the size of the change rather than the size of the
+ * whole settings file. Changes of tracked settings are encoded and appended on a dedicated writer thread, in the order
+ * they were made, so the thread changing a setting never waits for the file. On {@link #open()} the snapshot is loaded and the journal is replayed on top of it.
+ * Once the journal grows past the compaction threshold, a fresh snapshot is written in the background and the
+ * journal is discarded.
+ * <p>
+ * A record is only applied if it was written completely, so a process killed in the middle of an append loses at
+ * most that one change; the torn tail is cut off when the journal is next opened. Records are not forced to the
+ * storage device, so the journal survives the process being killed but not necessarily a power loss.
+ */
+public class JournalSettingsStore implements AutoCloseable {
+    private static final System.Logger LOGGER = System.getLogger(JournalSettingsStore.class.getName());
+
+    /**
+     * The registry whose settings are persisted.
+     */
+    @Getter
+    private final SettingsRegistry registry;
+
+    /**
+     * The JSON snapshot file.
+     */
+    @Getter
+    private final Path snapshotPath;
+
+    /**
+     * The journal file, which sits next to the snapshot.
+     */
+    @Getter
+    private final Path journalPath;
+
+    /**
+     * The journal size, in bytes, above which the journal is compacted into a new snapshot.
+     */
+    @Getter
+    private final long compactionThreshold;
+
+    private final Path rotatedJournalPath;
+    private final JsonSettingsStore snapshotStore;
+    private final Consumer<IOException> errorHandler;
+    private final ExecutorService writer;
+    private final ExecutorService compactor;
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private final Object lock = new Object();
+    private FileChannel journal;
+
+    /**
+     * Constructs a new JournalSettingsStore that logs background failures through the {@link System.Logger} named
+     * after this class.
+     *
+     * @param registry            The registry whose settings are persisted.
+     * @param snapshotPath        The JSON snapshot file.
+     * @param compactionThreshold The journal size, in bytes, above which the journal is compacted.
+     */
+    public JournalSettingsStore(@NotNull SettingsRegistry registry, @NotNull Path snapshotPath, long compactionThreshold) {
+        this(registry, snapshotPath, compactionThreshold, exception ->
+                LOGGER.log(System.Logger.Level.ERROR, "Failed to persist settings to " + snapshotPath, exception));
+    }
+
+    /**
+     * Constructs a new JournalSettingsStore.
+     * The store does nothing until it is {@link #open() opened}.
+     *
+     * @param registry            The registry whose settings are persisted.
+     * @param snapshotPath        The JSON snapshot file.
+     * @param compactionThreshold The journal size, in bytes, above which the journal is compacted.
+     * @param errorHandler        The handler that is called when appending a tracked change or compacting fails,
+     *                            and for journal records that can no longer be decoded by their setting's codec.
+     */
+    public JournalSettingsStore(@NotNull SettingsRegistry registry, @NotNull Path snapshotPath, long compactionThreshold,
+                                @NotNull Consumer<IOException> errorHandler) {
+        if (registry == null || snapshotPath == null || errorHandler == null)
+            throw new IllegalArgumentException("Registry, snapshot path and error handler cannot be null");
+
+        if (compactionThreshold <= 0)
+            throw new IllegalArgumentException("Compaction threshold must be positive");
+
+        this.registry = registry;
+        this.snapshotPath = snapshotPath.toAbsolutePath();
+        this.journalPath = this.snapshotPath.resolveSibling(this.snapshotPath.getFileName() + ".journal");
+        this.rotatedJournalPath = this.snapshotPath.resolveSibling(this.snapshotPath.getFileName() + ".journal.old");
+        this.compactionThreshold = compactionThreshold;
+        this.snapshotStore = new JsonSettingsStore(registry);
+        this.errorHandler = errorHandler;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "Settings-Journal-Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "Settings-Journal-Compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Loads the snapshot, replays the journal on top of it without notifying listeners, and starts journaling
+     * changes of every setting currently registered in the registry.
+     *
+     * @throws IOException If the snapshot or journal cannot be read, or the journal cannot be opened.
+     */
+    public void open() throws IOException {
+        synchronized (this.lock) {
+            if (this.journal != null)
+                throw new IllegalStateException("Journal is already open");
+
+            this.snapshotStore.load(this.snapshotPath);
+            boolean interruptedCompaction = Files.exists(this.rotatedJournalPath);
+            replay(this.rotatedJournalPath);
+            replay(this.journalPath);
+
+            this.journal = FileChannel.open(this.journalPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+            if (interruptedCompaction) {
+                compact();
+            }
+        }
+
+        this.registry.forEach(this::track);
+    }
+
+    /**
+     * Starts journaling changes of the given setting. The changes are appended on the writer thread.
+     * Settings registered after {@link #open()} must be tracked explicitly.
+     *
+     * @param setting The setting to journal.
+     * @param <T>     The type of the setting's value.
+     */
+    public <T> void track(@NotNull Setting<T> setting) {
+        Consumer<T> listener = value -> {
+            try {
+                this.writer.execute(() -> {
+                    try {
+                        append(setting, value);
+                    } catch (IOException exception) {
+                        this.errorHandler.accept(exception);
+                    }
+                });
+            } catch (RejectedExecutionException exception) {
+                // Closed concurrently, the change is made after the journal stopped recording
+            }
+        };
+
+        Subscription subscription = setting.addListener(listener);
+        synchronized (this.subscriptions) {
+            this.subscriptions.add(subscription);
+        }
+    }
+
+    /**
+     * Appends a change of the given setting to the journal on the calling thread.
+     * Schedules a background compaction if the journal has grown past the threshold.
+     *
+     * @param setting The setting that changed.
+     * @param value   The new value of the setting.
+     * @param <T>     The type of the setting's value.
+     * @throws IOException If writing to the journal fails.
+     */
+    public <T> void append(@NotNull Setting<T> setting, T value) throws IOException {
+        var record = new JsonObject();
+        record.addProperty("id", setting.getId());
+        record.add("value", value == null ? JsonNull.INSTANCE : setting.getCodec().serializeJson(value));
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(record + "\n");
+
+        long size;
+        synchronized (this.lock) {
+            if (this.journal == null)
+                throw new IllegalStateException("Journal is not open");
+
+            while (buffer.hasRemaining()) {
+                this.journal.write(buffer);
+            }
+
+            size = this.journal.size();
+        }
+
+        if (size > this.compactionThreshold && this.compacting.compareAndSet(false, true)) {
+            try {
+                this.compactor.execute(() -> {
+                    try {
+                        compact();
+                    } catch (IOException exception) {
+                        this.errorHandler.accept(exception);
+                    } finally {
+                        this.compacting.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException exception) {
+                // Closed concurrently, the journal is kept and compacted when an append crosses the threshold again
+                this.compacting.set(false);
+            }
+        }
+    }
+
+    /**
+     * Writes the current values of all settings to a fresh snapshot and discards the journaled changes it covers.
+     * The journal is rotated first, so changes keep being appended while the snapshot is written.
+     *
+     * @throws IOException If the journal cannot be rotated or the snapshot cannot be written.
+     */
+    public void compact() throws IOException {
+        synchronized (this.lock) {
+            if (this.journal == null)
+                throw new IllegalStateException("Journal is not open");
+
+            // If a previous compaction failed, the rotated journal is still pending and the
+            // snapshot written below covers both it and the current journal up to this point
+            if (Files.notExists(this.rotatedJournalPath)) {
+                this.journal.close();
+                Files.move(this.journalPath, this.rotatedJournalPath, StandardCopyOption.REPLACE_EXISTING);
+                this.journal = FileChannel.open(this.journalPath,
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+        }
+
+        this.snapshotStore.save(this.snapshotPath);
+        Files.deleteIfExists(this.rotatedJournalPath);
+    }
+
+    /**
+     * Stops journaling changes, waits for the pending appends and a running compaction, and closes the journal.
+     * Calling this method more than once has no effect.
+     *
+     * @throws IOException If closing the journal fails.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this.subscriptions) {
+            this.subscriptions.forEach(Subscription::close);
+            this.subscriptions.clear();
+        }
+
+        // The writer is drained first, as its last appends may still schedule a compaction
+        try {
+            this.writer.shutdown();
+            this.writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            this.compactor.shutdown();
+            this.compactor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException exception) {
+            this.compactor.shutdown();
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (this.lock) {
+            if (this.journal != null) {
+                this.journal.close();
+                this.journal = null;
+            }
+        }
+    }
+
+    /**
+     * Applies the complete records of a journal file and truncates anything after the last complete record.
+     */
+    private void replay(Path path) throws IOException {
+        if (Files.notExists(path))
+            return;
+
+        byte[] bytes = Files.readAllBytes(path);
+        int start = 0;
+        for (int end = 0; end < bytes.length; end++) {
+            if (bytes[end] != '\n')
+                continue;
+
+            if (!applyRecord(path, new String(bytes, start, end - start, StandardCharsets.UTF_8)))
+                break;
+
+            start = end + 1;
+        }
+
+        if (start < bytes.length) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(start);
+            }
+        }
+    }
+
+    /**
+     * Applies a single journal record. Intact records the setting's codec cannot decode are reported to the error
+     * handler and skipped.
+     *
+     * @return False if the record is malformed, meaning the journal is corrupt from here on.
+     */
+    private boolean applyRecord(Path path, String line) {
+        JsonObject record;
+        try {
+            record = JsonParser.parseString(line).getAsJsonObject();
+        } catch (JsonParseException | IllegalStateException exception) {
+            return false;
+        }
+
+        if (!record.has("id") || !record.has("value"))
+            return false;
+
+        Setting<?> setting = this.registry.getSetting(record.get("id").getAsString());
+        if (setting == null)
+            return true;
+
+        JsonElement value = record.get("value");
+        try {
+            setting.fromJson(value.isJsonNull() ? null : value);
+        } catch (RuntimeException exception) {
+            // The record is intact but no longer matches the setting's codec, keep replaying the rest
+            this.errorHandler.accept(new IOException("Failed to replay journaled value of setting "
+                    + setting.getId() + " from " + path, exception));
+        }
+
+        return true;
+    }
+}
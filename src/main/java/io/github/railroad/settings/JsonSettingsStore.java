@@ -0,0 +1,383 @@
+package io.github.railroad.settings;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+/**
+ * Reads and writes the settings of a {@link SettingsRegistry} as a single JSON object keyed by setting ID.
+ * Both directions work in one streaming pass over a {@link JsonReader} or {@link JsonWriter}: each key is dispatched
+ * straight to its {@link Setting} and {@link SettingCodec} without building a tree for the whole file.
+ * Keys that do not belong to a registered setting are skipped.
+ */
+public class JsonSettingsStore {
+    /**
+     * The registry whose settings are read and written.
+     */
+    @Getter
+    private final SettingsRegistry registry;
+
+    /**
+     * Constructs a new JsonSettingsStore for the given registry.
+     *
+     * @param registry The registry whose settings are read and written.
+     */
+    public JsonSettingsStore(@NotNull SettingsRegistry registry) {
+        if (registry == null)
+            throw new IllegalArgumentException("Registry cannot be null");
+
+        this.registry = registry;
+    }
+
+    /**
+     * Loads the settings from a file without notifying listeners.
+     * If the file does not exist, the settings are left untouched.
+     *
+     * @param path The file to load the settings from.
+     * @return True if the file existed and was loaded, false otherwise.
+     * @throws IOException If reading the file fails or the file is malformed.
+     */
+    public boolean load(Path path) throws IOException {
+        return load(path, false);
+    }
+
+    /**
+     * Loads the settings from a file.
+     * If the file does not exist, the settings are left untouched.
+     *
+     * @param path            The file to load the settings from.
+     * @param notifyListeners Whether the listeners of each loaded setting should be notified.
+     * @return True if the file existed and was loaded, false otherwise.
+     * @throws IOException If reading the file fails or the file is malformed.
+     */
+    public boolean load(Path path, boolean notifyListeners) throws IOException {
+        if (Files.notExists(path))
+            return false;
+
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            read(reader, notifyListeners);
+        }
+
+        return true;
+    }
+
+    /**
+     * Loads the settings from a file without decoding their values.
+     * Each value is kept as its raw JSON text and only parsed and decoded by its codec when the setting is first read,
+     * so settings that are never read cost neither a JSON tree nor codec work. Listeners are not notified.
+     * If the file does not exist, the settings are left untouched.
+     *
+     * @param path The file to load the settings from.
+     * @return True if the file existed and was loaded, false otherwise.
+     * @throws IOException If reading the file fails or the structure of the file is malformed.
+     */
+    public boolean loadLazily(Path path) throws IOException {
+        if (Files.notExists(path))
+            return false;
+
+        readLazily(Files.readString(path, StandardCharsets.UTF_8));
+        return true;
+    }
+
+    /**
+     * Saves the settings to a file, replacing its contents atomically.
+     * The settings are first written to a temporary file next to the target, which is then moved over the target,
+     * so readers never observe a partially written file.
+     *
+     * @param path The file to save the settings to.
+     * @throws IOException If writing the file fails.
+     */
+    public void save(Path path) throws IOException {
+        AtomicFiles.write(path, out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            write(writer);
+            writer.flush();
+        });
+    }
+
+    /**
+     * Reads the settings from a JSON object in a single streaming pass.
+     *
+     * @param reader          The reader to read the JSON object from.
+     * @param notifyListeners Whether the listeners of each read setting should be notified.
+     * @throws IOException If reading fails, the input is malformed, or a value cannot be decoded.
+     */
+    public void read(Reader reader, boolean notifyListeners) throws IOException {
+        read(reader, notifyListeners ? ReadMode.NOTIFY : ReadMode.SILENT);
+    }
+
+    /**
+     * Reads the settings from a JSON object without decoding their values.
+     * The object is scanned for the text of each value, which is only parsed and decoded by its codec when the
+     * setting is first read. Values that are never read are written back verbatim by {@link #write(Writer)}.
+     * Listeners are not notified.
+     *
+     * @param reader The reader to read the JSON object from.
+     * @throws IOException If reading fails or the structure of the input is malformed. Malformed values are only
+     *                     detected when they are decoded, and fall back as described in {@link Setting#loadValueLazily}.
+     */
+    public void readLazily(Reader reader) throws IOException {
+        var text = new StringWriter();
+        reader.transferTo(text);
+        readLazily(text.toString());
+    }
+
+    private void readLazily(String json) throws IOException {
+        var scanner = new RawJsonScanner(json);
+        scanner.beginObject();
+        while (scanner.hasNext()) {
+            String id = scanner.nextName();
+            String value = scanner.nextValue();
+            Setting<?> setting = this.registry.getSetting(id);
+            if (setting == null)
+                continue;
+
+            try {
+                deferValue(setting, value);
+            } catch (IllegalStateException exception) {
+                throw new IOException("Failed to read setting '" + id + "'", exception);
+            }
+        }
+
+        scanner.endDocument();
+    }
+
+    private void read(Reader reader, ReadMode mode) throws IOException {
+        var jsonReader = new JsonReader(reader);
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String id = jsonReader.nextName();
+            Setting<?> setting = this.registry.getSetting(id);
+            if (setting == null) {
+                jsonReader.skipValue();
+                continue;
+            }
+
+            try {
+                switch (mode) {
+                    case SILENT -> setting.readJson(jsonReader);
+                    case NOTIFY -> setting.readJsonUpdate(jsonReader);
+                }
+            } catch (IllegalStateException | NumberFormatException | JsonParseException exception) {
+                throw new IOException("Failed to read setting '" + id + "'", exception);
+            }
+        }
+
+        jsonReader.endObject();
+        if (jsonReader.peek() != JsonToken.END_DOCUMENT)
+            throw new IOException("Expected end of settings document at " + jsonReader.getPath());
+    }
+
+    /**
+     * Writes the settings as a JSON object in a single streaming pass.
+     * Settings are written in registration order. Values loaded {@link #readLazily(Reader) lazily} that have not
+     * been decoded yet are written as the JSON text they were read from, without decoding them.
+     *
+     * @param writer The writer to write the JSON object to.
+     * @throws IOException If writing fails.
+     */
+    public void write(Writer writer) throws IOException {
+        var jsonWriter = new JsonWriter(writer);
+        jsonWriter.setIndent("  ");
+        jsonWriter.setSerializeNulls(true);
+        jsonWriter.beginObject();
+        for (Setting<?> setting : this.registry.getSettings()) {
+            jsonWriter.name(setting.getId());
+            String pending = setting.pendingJson();
+            if (pending != null) {
+                jsonWriter.jsonValue(pending);
+            } else {
+                setting.writeJson(jsonWriter);
+            }
+        }
+
+        jsonWriter.endObject();
+        jsonWriter.flush();
+    }
+
+    private static <T> void deferValue(Setting<T> setting, String json) {
+        SettingCodec<T, ?> codec = setting.getCodec();
+        if (codec == null)
+            throw new IllegalStateException("Setting '" + setting.getId() + "' has no codec");
+
+        if (json.equals("null")) {
+            setting.loadValue(null);
+            return;
+        }
+
+        setting.loadValueLazily(new RawJson<>(codec, json));
+    }
+
+    private enum ReadMode {
+        SILENT, NOTIFY
+    }
+
+    /**
+     * The loader of a value read lazily, holding the value's JSON text until it is decoded.
+     *
+     * @param codec The codec that decodes the value.
+     * @param json  The JSON text of the value.
+     * @param <T>   The type of the value.
+     */
+    record RawJson<T>(SettingCodec<T, ?> codec, String json) implements Supplier<T> {
+        @Override
+        public T get() {
+            try {
+                return this.codec.decode(new JsonReader(new StringReader(this.json)));
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+    }
+
+    /**
+     * Scans the top-level object of a settings document for its keys and the text of their values.
+     * Values are skipped by matching brackets and strings only, without parsing them.
+     */
+    private static final class RawJsonScanner {
+        private final String json;
+        private int position;
+        private boolean first = true;
+
+        private RawJsonScanner(String json) {
+            this.json = json;
+        }
+
+        private void beginObject() throws IOException {
+            expect('{');
+        }
+
+        private boolean hasNext() throws IOException {
+            skipWhitespace();
+            if (peek() == '}') {
+                this.position++;
+                return false;
+            }
+
+            if (!this.first) {
+                expect(',');
+                skipWhitespace();
+            }
+
+            this.first = false;
+            return true;
+        }
+
+        private String nextName() throws IOException {
+            if (peek() != '"')
+                throw syntaxError("Expected a name");
+
+            int start = this.position;
+            skipString();
+            String name = this.json.substring(start + 1, this.position - 1);
+            if (name.indexOf('\\') >= 0) {
+                name = new JsonReader(new StringReader(this.json.substring(start, this.position))).nextString();
+            }
+
+            expect(':');
+            return name;
+        }
+
+        private String nextValue() throws IOException {
+            skipWhitespace();
+            int start = this.position;
+            char first = peek();
+            if (first == '"') {
+                skipString();
+            } else if (first == '{' || first == '[') {
+                skipContainer();
+            } else {
+                while (this.position < this.json.length() && ",}] \t\r\n".indexOf(this.json.charAt(this.position)) < 0) {
+                    this.position++;
+                }
+
+                if (this.position == start)
+                    throw syntaxError("Expected a value");
+            }
+
+            return this.json.substring(start, this.position);
+        }
+
+        private void endDocument() throws IOException {
+            skipWhitespace();
+            if (this.position < this.json.length())
+                throw syntaxError("Expected end of settings document");
+        }
+
+        private void skipString() throws IOException {
+            this.position++;
+            while (this.position < this.json.length()) {
+                char c = this.json.charAt(this.position++);
+                if (c == '\\') {
+                    this.position++;
+                } else if (c == '"') {
+                    return;
+                }
+            }
+
+            throw syntaxError("Unterminated string");
+        }
+
+        private void skipContainer() throws IOException {
+            int depth = 0;
+            while (this.position < this.json.length()) {
+                char c = this.json.charAt(this.position);
+                if (c == '"') {
+                    skipString();
+                    continue;
+                }
+
+                this.position++;
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if ((c == '}' || c == ']') && --depth == 0) {
+                    return;
+                }
+            }
+
+            throw syntaxError("Unterminated object or array");
+        }
+
+        private void expect(char expected) throws IOException {
+            skipWhitespace();
+            if (peek() != expected)
+                throw syntaxError("Expected '" + expected + "'");
+
+            this.position++;
+        }
+
+        private char peek() throws IOException {
+            if (this.position >= this.json.length())
+                throw syntaxError("Unexpected end of settings document");
+
+            return this.json.charAt(this.position);
+        }
+
+        private void skipWhitespace() {
+            while (this.position < this.json.length() && Character.isWhitespace(this.json.charAt(this.position))) {
+                this.position++;
+            }
+        }
+
+        private MalformedJsonException syntaxError(String message) {
+            return new MalformedJsonException(message + " at offset " + this.position);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.railroad.settings;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Supplier;
+
+/**
+ * A value that is loaded on first access and remembered afterwards.
+ * It is shared between a setting and the registry's snapshots, so a lazily loaded value is decoded at most once
+ * no matter which of them reads it first. A loader that fails yields null.
+ *
+ * @param <T> The type of the value.
+ */
+final class LazyValue<T> implements Supplier<T> {
+    @Nullable
+    private Supplier<? extends T> loader;
+    @Nullable
+    private T value;
+    private volatile boolean loaded;
+
+    LazyValue(Supplier<? extends T> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Gets the loader if the value has not been loaded yet.
+     *
+     * @return The loader, or null once the value has been loaded.
+     */
+    @Nullable
+    Supplier<? extends T> pendingLoader() {
+        if (this.loaded)
+            return null;
+
+        synchronized (this) {
+            return this.loader;
+        }
+    }
+
+    @Override
+    public @Nullable T get() {
+        if (!this.loaded) {
+            synchronized (this) {
+                if (!this.loaded) {
+                    try {
+                        this.value = this.loader.get();
+                    } catch (RuntimeException exception) {
+                        this.value = null;
+                    }
+
+                    this.loader = null;
+                    this.loaded = true;
+                }
+            }
+        }
+
+        return this.value;
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.railroad.settings;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dispatch policies for setting listeners registered through {@link Setting#addListener(java.util.function.Consumer, Executor)}.
+ * Whatever the executor, each listener receives its notifications one at a time and in the order the changes were made.
+ */
+public final class ListenerExecutors {
+    /**
+     * Runs listeners directly on the thread that changed the setting, before the change method returns.
+     * This is the policy used by {@link Setting#addListener(java.util.function.Consumer)}.
+     */
+    public static final Executor DIRECT = Runnable::run;
+
+    /**
+     * Runs listeners on the JavaFX Application Thread through {@link Platform#runLater(Runnable)}.
+     */
+    public static final Executor FX_THREAD = Platform::runLater;
+
+    private ListenerExecutors() {
+    }
+
+    /**
+     * Gets the shared executor that runs every dispatch on a new virtual thread.
+     *
+     * @return The virtual thread executor.
+     */
+    public static Executor virtualThreads() {
+        return VirtualThreads.EXECUTOR;
+    }
+
+    /**
+     * Creates an executor backed by a fixed number of daemon threads.
+     * Listeners dispatched to the pool share its threads, so slow listeners delay each other but never the
+     * thread that changed the setting.
+     *
+     * @param threads The number of threads in the pool.
+     * @return The new executor. It should be shut down once no longer needed.
+     */
+    public static ExecutorService boundedPool(int threads) {
+        if (threads <= 0)
+            throw new IllegalArgumentException("Thread count must be positive");
+
+        var counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            var thread = new Thread(runnable, "Settings-Listener-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static final class VirtualThreads {
+        private static final Executor EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
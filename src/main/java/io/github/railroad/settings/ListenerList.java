@@ -0,0 +1,239 @@
+package io.github.railroad.settings;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * A list of listeners built for frequent registration and removal.
+ * <p>
+ * Adding a listener appends it to an array that grows geometrically, and removing one through its {@link Entry}
+ * only marks the entry as removed; the array is compacted into a new one once removed entries outnumber live ones.
+ * Both operations are therefore amortized constant time, unlike a copy-on-write list which copies all listeners on
+ * every change. Iterating is lock-free and allocation-free: readers walk the array returned by {@link #entries()},
+ * stopping at the first null slot and skipping entries that have been removed. A compaction never changes an array
+ * that readers may be walking, so each reader sees every listener that was registered before it started and not
+ * removed since.
+ *
+ * @param <L> The type of the listeners.
+ */
+final class ListenerList<L> {
+    private static final Entry<?>[] NO_ENTRIES = new Entry<?>[0];
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * The shared list that owners hold until their first listener is added.
+     * Most settings never get a listener, so they never allocate a list of their own.
+     */
+    private static final ListenerList<?> EMPTY = new ListenerList<>();
+
+    /**
+     * The entries, followed by unused null slots.
+     * The reference is reassigned after every change so that readers observe fully published entries.
+     */
+    @SuppressWarnings("unchecked")
+    private volatile Entry<L>[] entries = (Entry<L>[]) NO_ENTRIES;
+
+    /**
+     * The number of live entries.
+     */
+    private volatile int live;
+
+    /**
+     * The number of used slots, including removed entries. Guarded by this list.
+     */
+    private int size;
+
+    /**
+     * The number of listeners added through {@link #addAndSweep(Object, Predicate)} since the last sweep.
+     * Guarded by this list.
+     */
+    private int addedSinceSweep;
+
+    /**
+     * Gets the shared empty list, which owners hold until their first listener is added.
+     * Listeners must never be added to it; owners call {@link #getOrCreate(VarHandle, Object)} instead.
+     *
+     * @param <L> The type of the listeners.
+     * @return The shared empty list.
+     */
+    @SuppressWarnings("unchecked")
+    static <L> ListenerList<L> empty() {
+        return (ListenerList<L>) EMPTY;
+    }
+
+    /**
+     * Gets the list held in the given field of the owner, replacing the shared {@link #empty() empty list}
+     * with a list of its own first if needed.
+     *
+     * @param handle The handle of the owner's volatile list field.
+     * @param owner  The owner of the field.
+     * @param <L>    The type of the listeners.
+     * @return The owner's own list, which listeners can be added to.
+     */
+    @SuppressWarnings("unchecked")
+    static <L> ListenerList<L> getOrCreate(VarHandle handle, Object owner) {
+        var list = (ListenerList<L>) handle.getVolatile(owner);
+        if (list != EMPTY)
+            return list;
+
+        var created = new ListenerList<L>();
+        var witness = (ListenerList<L>) handle.compareAndExchange(owner, list, created);
+        return witness == list ? created : witness;
+    }
+
+    /**
+     * Adds a listener.
+     *
+     * @param listener The listener to add.
+     * @return The entry of the listener, which removes it in constant time.
+     */
+    synchronized Entry<L> add(L listener) {
+        if (this == EMPTY)
+            throw new IllegalStateException("Cannot add listeners to the shared empty list");
+
+        Entry<L>[] array = this.entries;
+        if (this.size == array.length) {
+            array = Arrays.copyOf(array, Math.max(INITIAL_CAPACITY, array.length * 2));
+        }
+
+        var entry = new Entry<>(listener);
+        array[this.size++] = entry;
+        this.entries = array;
+        this.live++;
+        return entry;
+    }
+
+    /**
+     * Adds a listener, first removing the listeners that match the given condition once the listeners added this way
+     * since the last sweep make up half of the live listeners. The linear sweep is thereby paid for by the additions
+     * preceding it, keeping adding amortized constant time even when every addition could leave a stale listener
+     * behind.
+     *
+     * @param listener The listener to add.
+     * @param stale    The condition matching listeners that can be removed.
+     * @return The entry of the listener, which removes it in constant time.
+     */
+    synchronized Entry<L> addAndSweep(L listener, Predicate<? super L> stale) {
+        if (++this.addedSinceSweep * 2 > Math.max(INITIAL_CAPACITY, this.live)) {
+            this.addedSinceSweep = 0;
+            removeIf(stale);
+        }
+
+        return add(listener);
+    }
+
+    /**
+     * Removes the listener of the given entry. Removing an entry more than once has no effect.
+     *
+     * @param entry The entry to remove, which must belong to this list.
+     */
+    synchronized void remove(Entry<L> entry) {
+        if (entry.removed)
+            return;
+
+        entry.removed = true;
+        this.live--;
+        if (this.live * 2 < this.size) {
+            compact();
+        }
+    }
+
+    /**
+     * Removes the first listener that matches the given condition.
+     *
+     * @param condition The condition to match.
+     * @return True if a listener was removed, false otherwise.
+     */
+    synchronized boolean removeFirst(Predicate<? super L> condition) {
+        Entry<L>[] array = this.entries;
+        for (int index = 0; index < this.size; index++) {
+            Entry<L> entry = array[index];
+            if (!entry.removed && condition.test(entry.listener)) {
+                remove(entry);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Removes all listeners that match the given condition.
+     *
+     * @param condition The condition to match.
+     */
+    synchronized void removeIf(Predicate<? super L> condition) {
+        Entry<L>[] array = this.entries;
+        int size = this.size;
+        for (int index = 0; index < size; index++) {
+            Entry<L> entry = array[index];
+            if (!entry.removed && condition.test(entry.listener)) {
+                remove(entry);
+            }
+        }
+    }
+
+    /**
+     * Gets the entries to iterate over. Iteration stops at the first null slot, and entries whose
+     * {@link Entry#get()} returns null have been removed and must be skipped.
+     *
+     * @return The current entry array, which must not be modified.
+     */
+    Entry<L>[] entries() {
+        return this.entries;
+    }
+
+    /**
+     * Checks whether the list holds no listeners.
+     *
+     * @return True if no listener is registered, false otherwise.
+     */
+    boolean isEmpty() {
+        return this.live == 0;
+    }
+
+    /**
+     * Copies the live entries into a new array, leaving the current array untouched for concurrent readers.
+     */
+    private void compact() {
+        Entry<L>[] array = this.entries;
+        @SuppressWarnings("unchecked")
+        Entry<L>[] compacted = (Entry<L>[]) new Entry<?>[Math.max(INITIAL_CAPACITY, this.live * 2)];
+        int size = 0;
+        for (int index = 0; index < this.size; index++) {
+            if (!array[index].removed) {
+                compacted[size++] = array[index];
+            }
+        }
+
+        this.size = size;
+        this.entries = compacted;
+    }
+
+    /**
+     * A registered listener.
+     *
+     * @param <L> The type of the listener.
+     */
+    static final class Entry<L> {
+        private final L listener;
+        private volatile boolean removed;
+
+        private Entry(L listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * Gets the listener of the entry.
+         *
+         * @return The listener, or null if it has been removed.
+         */
+        @Nullable
+        L get() {
+            return this.removed ? null : this.listener;
+        }
+    }
+}
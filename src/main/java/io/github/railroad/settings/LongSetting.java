@@ -0,0 +1,162 @@
+package io.github.railroad.settings;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.function.LongConsumer;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * A setting specialized for {@code long} values.
+ * The value is stored unboxed and can be read and written through {@link #getAsLong()} and {@link #setLong(long)}
+ * without allocating. The generic {@link Setting} methods remain available and box on demand.
+ */
+public class LongSetting extends PrimitiveSetting<Long, LongConsumer> {
+    /**
+     * Constructs a new LongSetting instance using {@link DefaultSettingCodecs#LONG}.
+     *
+     * @param id           Unique identifier for the setting.
+     * @param treePath     The tree path for the setting.
+     * @param defaultValue The default value for the setting.
+     */
+    public LongSetting(String id, String treePath, long defaultValue) {
+        super(id, treePath, DefaultSettingCodecs.LONG, Long.class, defaultValue, defaultValue);
+    }
+
+    /**
+     * Gets the current value of the setting without boxing.
+     *
+     * @return The current value of the setting.
+     */
+    public long getAsLong() {
+        return getBits();
+    }
+
+    /**
+     * Gets the default value of the setting without boxing.
+     *
+     * @return The default value of the setting.
+     */
+    public long getDefaultAsLong() {
+        return getDefaultBits();
+    }
+
+    /**
+     * Sets the value of the setting without boxing and notifies listeners if it changed.
+     * Generic listeners registered through {@link #addListener} receive a boxed value,
+     * primitive listeners registered through {@link #addLongListener} do not.
+     *
+     * @param value The new value of the setting.
+     */
+    public void setLong(long value) {
+        setBits(value);
+    }
+
+    /**
+     * Atomically sets the value of the setting to the given new value if the current value equals the expected value,
+     * without boxing, notifying listeners if it changed.
+     *
+     * @param expected The expected current value.
+     * @param newValue The new value.
+     * @return True if the value was set, false if the current value did not equal the expected value.
+     */
+    public boolean compareAndSetLong(long expected, long newValue) {
+        return compareAndSetBits(expected, newValue);
+    }
+
+    /**
+     * Atomically sets the value of the setting without boxing and notifies listeners if it changed.
+     *
+     * @param newValue The new value.
+     * @return The previous value of the setting.
+     */
+    public long getAndSetLong(long newValue) {
+        return getAndSetBits(newValue);
+    }
+
+    /**
+     * Atomically updates the value of the setting with the result of the given function and notifies listeners
+     * if it changed. The function may be applied more than once if other threads update the value concurrently,
+     * so it should be free of side effects.
+     *
+     * @param updater The function computing the new value from the current value.
+     * @return The updated value.
+     */
+    public long updateAndGetLong(@NotNull LongUnaryOperator updater) {
+        resolvePendingValue();
+        while (true) {
+            long current = storedBits();
+            long next = updater.applyAsLong(current);
+            if (updateBits(current, next))
+                return next;
+        }
+    }
+
+    /**
+     * Adds a primitive listener that will be notified when the setting's value changes.
+     *
+     * @param listener The listener to add.
+     * @return A subscription that removes the listener when closed.
+     */
+    public Subscription addLongListener(@NotNull LongConsumer listener) {
+        return addPrimitiveListener(listener);
+    }
+
+    /**
+     * Removes a primitive listener from the setting.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeLongListener(@NotNull LongConsumer listener) {
+        removePrimitiveListener(listener);
+    }
+
+    @Override
+    Long box(long bits) {
+        return bits;
+    }
+
+    @Override
+    long unbox(Long value) {
+        return value;
+    }
+
+    @Override
+    void deliver(LongConsumer listener, long bits) {
+        listener.accept(bits);
+    }
+
+    @Override
+    public JsonElement toJson() {
+        return new JsonPrimitive(getAsLong());
+    }
+
+    @Override
+    public Long fromJson(@Nullable JsonElement json) {
+        loadBits(json == null ? getDefaultBits() : json.getAsLong());
+        return getValue();
+    }
+
+    @Override
+    public void writeJson(JsonWriter writer) throws IOException {
+        writer.value(getAsLong());
+    }
+
+    @Override
+    public Long readJson(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            loadBits(getDefaultBits());
+        } else {
+            loadBits(reader.nextLong());
+        }
+
+        return getValue();
+    }
+}
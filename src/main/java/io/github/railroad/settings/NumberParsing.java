@@ -0,0 +1,214 @@
+package io.github.railroad.settings;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Parses numbers from text without throwing for invalid input.
+ * <p>
+ * Text fields are parsed on every keystroke, and most intermediate input, such as an empty field or a lone minus
+ * sign, is not a valid number. Parsing it with {@link Integer#parseInt(String)} and friends throws and fills in a
+ * stack trace each time. The methods of this class validate the text with a single scan first, so invalid input
+ * costs neither an exception nor an allocation, and only valid input is handed to the JDK parsers. The integral
+ * parsers read the text in place. The floating point parsers need a {@link String}, so other character sequences are
+ * copied into one, and the JDK parser itself allocates while parsing valid input.
+ * <p>
+ * Callers that must tell invalid input apart from any value, such as a text field that keeps its setting unchanged
+ * while the user is still typing, check the text with an {@code is} method before parsing it with a fallback.
+ * <p>
+ * The accepted syntax is the one of the JDK parsers, except that floating point numbers must be decimal:
+ * hexadecimal floating point literals are rejected.
+ */
+public final class NumberParsing {
+    private NumberParsing() {
+    }
+
+    /**
+     * Checks whether the text is a valid {@code int}, as accepted by {@link Integer#parseInt(String)}.
+     *
+     * @param text The text to check.
+     * @return True if the text is a valid int, false otherwise.
+     */
+    public static boolean isInt(@NotNull CharSequence text) {
+        return isIntegral(text, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Checks whether the text is a valid {@code long}, as accepted by {@link Long#parseLong(String)}.
+     *
+     * @param text The text to check.
+     * @return True if the text is a valid long, false otherwise.
+     */
+    public static boolean isLong(@NotNull CharSequence text) {
+        return isIntegral(text, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Checks whether the text is a valid decimal {@code double} or {@code float}, as accepted by
+     * {@link Double#parseDouble(String)}. Values out of range are valid, they parse to infinity or zero.
+     *
+     * @param text The text to check.
+     * @return True if the text is a valid decimal floating point number, false otherwise.
+     */
+    public static boolean isDouble(@NotNull CharSequence text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        if (start < end && (text.charAt(start) == '+' || text.charAt(start) == '-')) {
+            start++;
+        }
+
+        if (matches(text, start, end, "NaN") || matches(text, start, end, "Infinity"))
+            return true;
+
+        int index = start;
+        int digits = 0;
+        while (index < end && isDigit(text.charAt(index))) {
+            index++;
+            digits++;
+        }
+
+        if (index < end && text.charAt(index) == '.') {
+            index++;
+            while (index < end && isDigit(text.charAt(index))) {
+                index++;
+                digits++;
+            }
+        }
+
+        if (digits == 0)
+            return false;
+
+        if (index < end && (text.charAt(index) == 'e' || text.charAt(index) == 'E')) {
+            index++;
+            if (index < end && (text.charAt(index) == '+' || text.charAt(index) == '-')) {
+                index++;
+            }
+
+            int exponentStart = index;
+            while (index < end && isDigit(text.charAt(index))) {
+                index++;
+            }
+
+            if (index == exponentStart)
+                return false;
+        }
+
+        if (index < end && "fFdD".indexOf(text.charAt(index)) >= 0) {
+            index++;
+        }
+
+        return index == end;
+    }
+
+    /**
+     * Parses an {@code int}, falling back to the given value if the text is not a valid int.
+     *
+     * @param text     The text to parse.
+     * @param fallback The value to return for invalid text.
+     * @return The parsed value, or the fallback.
+     * @see #isInt(CharSequence)
+     */
+    public static int parseInt(@NotNull CharSequence text, int fallback) {
+        return isInt(text) ? Integer.parseInt(text, 0, text.length(), 10) : fallback;
+    }
+
+    /**
+     * Parses a {@code long}, falling back to the given value if the text is not a valid long.
+     *
+     * @param text     The text to parse.
+     * @param fallback The value to return for invalid text.
+     * @return The parsed value, or the fallback.
+     * @see #isLong(CharSequence)
+     */
+    public static long parseLong(@NotNull CharSequence text, long fallback) {
+        return isLong(text) ? Long.parseLong(text, 0, text.length(), 10) : fallback;
+    }
+
+    /**
+     * Parses a {@code double}, falling back to the given value if the text is not a valid decimal number.
+     *
+     * @param text     The text to parse.
+     * @param fallback The value to return for invalid text.
+     * @return The parsed value, or the fallback.
+     * @see #isDouble(CharSequence)
+     */
+    public static double parseDouble(@NotNull CharSequence text, double fallback) {
+        return isDouble(text) ? Double.parseDouble(asString(text)) : fallback;
+    }
+
+    /**
+     * Parses a {@code float}, falling back to the given value if the text is not a valid decimal number.
+     *
+     * @param text     The text to parse.
+     * @param fallback The value to return for invalid text.
+     * @return The parsed value, or the fallback.
+     * @see #isDouble(CharSequence)
+     */
+    public static float parseFloat(@NotNull CharSequence text, float fallback) {
+        return isDouble(text) ? Float.parseFloat(asString(text)) : fallback;
+    }
+
+    /**
+     * Checks an optionally signed sequence of digits that fits between the given bounds,
+     * accumulating negatively like the JDK parsers so that the minimum value does not overflow.
+     */
+    private static boolean isIntegral(CharSequence text, long min, long max) {
+        int length = text.length();
+        if (length == 0)
+            return false;
+
+        int index = 0;
+        boolean negative = false;
+        char first = text.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            index++;
+            if (length == 1)
+                return false;
+        }
+
+        long limit = negative ? min : -max;
+        long multiplyLimit = limit / 10;
+        long result = 0;
+        for (; index < length; index++) {
+            int digit = Character.digit(text.charAt(index), 10);
+            if (digit < 0 || result < multiplyLimit)
+                return false;
+
+            result *= 10;
+            if (result < limit + digit)
+                return false;
+
+            result -= digit;
+        }
+
+        return true;
+    }
+
+    private static String asString(CharSequence text) {
+        return text instanceof String string ? string : text.toString();
+    }
+
+    private static boolean isDigit(char character) {
+        return character >= '0' && character <= '9';
+    }
+
+    private static boolean matches(CharSequence text, int start, int end, String expected) {
+        if (end - start != expected.length())
+            return false;
+
+        for (int index = 0; index < expected.length(); index++) {
+            if (text.charAt(start + index) != expected.charAt(index))
+                return false;
+        }
+
+        return true;
+    }
+}
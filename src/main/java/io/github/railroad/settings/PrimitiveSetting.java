@@ -0,0 +1,318 @@
+package io.github.railroad.settings;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.UnaryOperator;
+
+/**
+ * Base class of the settings specialized for primitive values.
+ * <p>
+ * The value is stored unboxed, as its bit pattern in a single {@code long}, so that the atomic operations and the
+ * notification of primitive listeners are implemented once for all primitive types and allocate nothing.
+ * Subclasses convert between their primitive type and its bit pattern, and deliver the bit pattern to their
+ * primitive listener type. The generic {@link Setting} methods box on demand. Changes are published to the
+ * registry's snapshots {@link #publishValueLazily() lazily}, as publishing boxes the value and copies a path of the
+ * snapshot structure.
+ *
+ * @param <T> The boxed type of the setting's value.
+ * @param <L> The type of the primitive listeners.
+ * @see IntSetting
+ * @see LongSetting
+ * @see DoubleSetting
+ * @see BooleanSetting
+ */
+abstract class PrimitiveSetting<T, L> extends Setting<T> {
+    private static final VarHandle BITS;
+    private static final VarHandle PRIMITIVE_LISTENERS;
+
+    static {
+        try {
+            BITS = MethodHandles.lookup().findVarHandle(PrimitiveSetting.class, "bits", long.class);
+            PRIMITIVE_LISTENERS = MethodHandles.lookup()
+                    .findVarHandle(PrimitiveSetting.class, "primitiveListeners", ListenerList.class);
+        } catch (ReflectiveOperationException exception) {
+            throw new ExceptionInInitializerError(exception);
+        }
+    }
+
+    /**
+     * The bit pattern of the default value of the setting.
+     */
+    private final long defaultBits;
+
+    /**
+     * List of primitive listeners that are notified when the setting's value changes.
+     * Holds the shared empty list until the first listener is added.
+     */
+    private volatile ListenerList<L> primitiveListeners = ListenerList.empty();
+
+    /**
+     * The bit pattern of the current value of the setting.
+     * The field is volatile so that values written on one thread are visible to readers on any other thread,
+     * and is updated atomically through {@link #BITS}.
+     */
+    private volatile long bits;
+
+    PrimitiveSetting(String id, String treePath, SettingCodec<T, ?> codec, Class<T> type, T defaultValue,
+                     long defaultBits) {
+        super(id, treePath, codec, type, false, defaultValue);
+        this.defaultBits = defaultBits;
+        this.bits = defaultBits;
+    }
+
+    /**
+     * Converts a bit pattern to the boxed value it represents.
+     *
+     * @param bits The bit pattern.
+     * @return The boxed value.
+     */
+    abstract T box(long bits);
+
+    /**
+     * Converts a value to its bit pattern.
+     *
+     * @param value The value, never null.
+     * @return The bit pattern.
+     */
+    abstract long unbox(T value);
+
+    /**
+     * Delivers a value to a primitive listener.
+     *
+     * @param listener The listener.
+     * @param bits     The bit pattern of the value.
+     */
+    abstract void deliver(L listener, long bits);
+
+    /**
+     * Checks whether two bit patterns represent the same value, so that replacing one with the other is not a change.
+     * Types with several bit patterns for one value override this.
+     *
+     * @param first  The first bit pattern.
+     * @param second The second bit pattern.
+     * @return True if the bit patterns represent the same value, false otherwise.
+     */
+    boolean isSameValue(long first, long second) {
+        return first == second;
+    }
+
+    /**
+     * Gets the bit pattern of the current value, decoding a pending lazily loaded value first.
+     *
+     * @return The bit pattern of the current value.
+     */
+    final long getBits() {
+        resolvePendingValue();
+        return this.bits;
+    }
+
+    /**
+     * Gets the bit pattern of the current value without decoding a pending lazily loaded value,
+     * for update loops that have decoded it already.
+     *
+     * @return The stored bit pattern.
+     */
+    final long storedBits() {
+        return this.bits;
+    }
+
+    /**
+     * Gets the bit pattern of the default value.
+     *
+     * @return The bit pattern of the default value.
+     */
+    final long getDefaultBits() {
+        return this.defaultBits;
+    }
+
+    /**
+     * Sets the value and notifies listeners if it changed.
+     *
+     * @param value The bit pattern of the new value.
+     */
+    final void setBits(long value) {
+        if (isSameValue(getBits(), value))
+            return;
+
+        discardPendingValue();
+        this.bits = value;
+        changed();
+    }
+
+    /**
+     * Atomically sets the value if the bit pattern of the current value equals the expected one,
+     * notifying listeners if it changed.
+     *
+     * @param expected The bit pattern of the expected value.
+     * @param newValue The bit pattern of the new value.
+     * @return True if the value was set, false if the current value did not match.
+     */
+    final boolean compareAndSetBits(long expected, long newValue) {
+        resolvePendingValue();
+        if (!BITS.compareAndSet(this, expected, newValue))
+            return false;
+
+        if (!isSameValue(expected, newValue)) {
+            changed();
+        }
+
+        return true;
+    }
+
+    /**
+     * Atomically sets the value and notifies listeners if it changed.
+     *
+     * @param newValue The bit pattern of the new value.
+     * @return The bit pattern of the previous value.
+     */
+    final long getAndSetBits(long newValue) {
+        resolvePendingValue();
+        long previous = (long) BITS.getAndSet(this, newValue);
+        if (!isSameValue(previous, newValue)) {
+            changed();
+        }
+
+        return previous;
+    }
+
+    /**
+     * Performs one step of an atomic update, replacing the stored value if it is still the current one and
+     * notifying listeners if it changed.
+     *
+     * @param current The bit pattern the next value was computed from.
+     * @param next    The bit pattern of the next value.
+     * @return True if the update is complete, false if the value was changed concurrently and the step must be retried.
+     */
+    final boolean updateBits(long current, long next) {
+        if (isSameValue(current, next))
+            return true;
+
+        if (!BITS.compareAndSet(this, current, next))
+            return false;
+
+        changed();
+        return true;
+    }
+
+    /**
+     * Sets the value without notifying listeners, as is done when settings are loaded.
+     *
+     * @param value The bit pattern of the loaded value.
+     */
+    final void loadBits(long value) {
+        discardPendingValue();
+        this.bits = value;
+        publishValue();
+    }
+
+    /**
+     * Adds a primitive listener.
+     *
+     * @param listener The listener to add.
+     * @return A subscription that removes the listener when closed.
+     */
+    final Subscription addPrimitiveListener(L listener) {
+        if (listener == null)
+            throw new IllegalArgumentException("Listener cannot be null");
+
+        ListenerList<L> list = ListenerList.getOrCreate(PRIMITIVE_LISTENERS, this);
+        ListenerList.Entry<L> entry = list.add(listener);
+        return () -> list.remove(entry);
+    }
+
+    /**
+     * Removes a primitive listener.
+     *
+     * @param listener The listener to remove.
+     */
+    final void removePrimitiveListener(L listener) {
+        if (listener == null)
+            throw new IllegalArgumentException("Listener cannot be null");
+
+        this.primitiveListeners.removeFirst(listener::equals);
+    }
+
+    private void changed() {
+        publishValueLazily();
+        notifyListeners();
+    }
+
+    @Override
+    public T getValue() {
+        return box(getBits());
+    }
+
+    @Override
+    public void setValue(T value) {
+        if (value == null)
+            throw new IllegalArgumentException("Setting value cannot be null");
+
+        setBits(unbox(value));
+    }
+
+    @Override
+    public boolean compareAndSet(T expected, T newValue) {
+        if (newValue == null)
+            throw new IllegalArgumentException("Setting value cannot be null");
+
+        return expected != null && compareAndSetBits(unbox(expected), unbox(newValue));
+    }
+
+    @Override
+    public T getAndSet(T newValue) {
+        if (newValue == null)
+            throw new IllegalArgumentException("Setting value cannot be null");
+
+        return box(getAndSetBits(unbox(newValue)));
+    }
+
+    @Override
+    public T updateAndGet(@NotNull UnaryOperator<T> updater) {
+        resolvePendingValue();
+        while (true) {
+            long current = this.bits;
+            T next = updater.apply(box(current));
+            if (next == null)
+                throw new IllegalArgumentException("Setting value cannot be null");
+
+            long nextBits = unbox(next);
+            if (isSameValue(current, nextBits))
+                return box(current);
+
+            if (BITS.compareAndSet(this, current, nextBits)) {
+                changed();
+                return next;
+            }
+        }
+    }
+
+    @Override
+    T currentValue() {
+        return box(this.bits);
+    }
+
+    @Override
+    void storeValue(T value) {
+        this.bits = value == null ? this.defaultBits : unbox(value);
+    }
+
+    @Override
+    protected void notifyListeners() {
+        long value = getBits();
+        for (ListenerList.Entry<L> entry : this.primitiveListeners.entries()) {
+            if (entry == null)
+                break;
+
+            L listener = entry.get();
+            if (listener != null) {
+                deliver(listener, value);
+            }
+        }
+
+        if (hasListeners()) {
+            super.notifyListeners();
+        }
+    }
+}
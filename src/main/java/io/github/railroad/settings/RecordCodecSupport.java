@@ -0,0 +1,210 @@
+package io.github.railroad.settings;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.layout.GridPane;
+
+import java.io.IOException;
+
+/**
+ * Operations on single record components used by the codecs generated for {@link GenerateSettingCodec} records.
+ * Keeping them here keeps the generated code short, and lets it call the component codecs without knowing the
+ * types of their nodes.
+ * <p>
+ * This class is public for the generated code only and is not meant to be used directly.
+ */
+public final class RecordCodecSupport {
+    private RecordCodecSupport() {
+    }
+
+    /**
+     * Encodes a component into a property of a JSON object, writing JSON {@code null} for a null value.
+     *
+     * @param json  The JSON object of the record.
+     * @param name  The name of the component.
+     * @param codec The codec of the component.
+     * @param value The value of the component.
+     * @param <T>   The type of the component.
+     */
+    public static <T> void encode(JsonObject json, String name, SettingCodec<T, ?> codec, T value) {
+        json.add(name, value == null ? JsonNull.INSTANCE : codec.serializeJson(value));
+    }
+
+    /**
+     * Decodes a component from a property of a JSON object.
+     *
+     * @param json     The JSON object of the record.
+     * @param name     The name of the component.
+     * @param codec    The codec of the component.
+     * @param fallback The value to use if the property is missing or null.
+     * @param <T>      The type of the component.
+     * @return The decoded value.
+     */
+    public static <T> T decode(JsonObject json, String name, SettingCodec<T, ?> codec, T fallback) {
+        JsonElement element = json.get(name);
+        return element == null || element.isJsonNull() ? fallback : codec.deserializeJson(element);
+    }
+
+    /**
+     * Writes a component as a named property of the JSON object being written.
+     *
+     * @param writer The writer, positioned inside the record's object.
+     * @param name   The name of the component.
+     * @param codec  The codec of the component.
+     * @param value  The value of the component.
+     * @param <T>    The type of the component.
+     * @throws IOException If writing fails.
+     */
+    public static <T> void write(JsonWriter writer, String name, SettingCodec<T, ?> codec, T value) throws IOException {
+        writer.name(name);
+        if (value == null) {
+            writer.nullValue();
+        } else {
+            codec.encode(writer, value);
+        }
+    }
+
+    /**
+     * Reads the value of a component the reader is positioned at.
+     *
+     * @param reader   The reader, positioned at the value of the property.
+     * @param codec    The codec of the component.
+     * @param fallback The value to use if the value is null.
+     * @param <T>      The type of the component.
+     * @return The read value.
+     * @throws IOException If reading fails.
+     */
+    public static <T> T read(JsonReader reader, SettingCodec<T, ?> codec, T fallback) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return fallback;
+        }
+
+        return codec.decode(reader);
+    }
+
+    /**
+     * Checks whether two values of a component are equivalent according to the component's codec.
+     *
+     * @param codec  The codec of the component.
+     * @param first  The first value.
+     * @param second The second value.
+     * @param <T>    The type of the component.
+     * @return True if the values are equivalent, false otherwise.
+     */
+    public static <T> boolean isEquivalent(SettingCodec<T, ?> codec, T first, T second) {
+        return codec.isEquivalent(first, second);
+    }
+
+    /**
+     * Creates a form with one labelled row per component.
+     *
+     * @param labels The labels of the components.
+     * @param nodes  The nodes of the components, in the same order.
+     * @return The form.
+     */
+    public static GridPane form(String[] labels, Node... nodes) {
+        if (labels.length != nodes.length)
+            throw new IllegalArgumentException("Expected " + labels.length + " nodes, got " + nodes.length);
+
+        var form = new GridPane();
+        form.setHgap(8);
+        form.setVgap(4);
+        for (int row = 0; row < nodes.length; row++) {
+            form.add(new Label(labels[row]), 0, row);
+            form.add(nodes[row], 1, row);
+        }
+
+        return form;
+    }
+
+    /**
+     * Gets the codec registered for a component's type in the {@link SettingCodecRegistry#getDefault() default
+     * registry}. This is called when the generated codec class is initialized, so the codec must be registered before
+     * the generated codec is first used.
+     *
+     * @param type      The type of the component.
+     * @param component The qualified name of the component, used in the error message.
+     * @param <T>       The type of the component.
+     * @return The registered codec.
+     * @throws IllegalStateException If no codec is registered for the type.
+     */
+    public static <T> SettingCodec<T, ?> registered(Class<T> type, String component) {
+        SettingCodec<T, ?> codec = SettingCodecRegistry.getDefault().find(type);
+        if (codec == null)
+            throw new IllegalStateException("No codec for " + type.getName() + " is registered in the default registry, "
+                    + "register one before the codec of " + component + " is first used");
+
+        return codec;
+    }
+
+    /**
+     * Creates the node of a component.
+     * The node shows the fallback if the value is null, as the nodes of most codecs cannot show null.
+     *
+     * @param codec    The codec of the component.
+     * @param value    The value of the component.
+     * @param fallback The value to show if the value is null.
+     * @param <T>      The type of the component.
+     * @param <N>      The type of the component's node.
+     * @return The node.
+     */
+    public static <T, N extends Node> N createNode(SettingCodec<T, N> codec, T value, T fallback) {
+        return codec.createNode().apply(value == null ? fallback : value);
+    }
+
+    /**
+     * Reads the value of a component from its row of a form created by {@link #form(String[], Node...)}.
+     *
+     * @param codec The codec of the component.
+     * @param form  The form.
+     * @param index The index of the component.
+     * @param <T>   The type of the component.
+     * @param <N>   The type of the component's node.
+     * @return The value.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, N extends Node> T readNode(SettingCodec<T, N> codec, GridPane form, int index) {
+        return codec.nodeToValue().apply((N) form.getChildren().get(index * 2 + 1));
+    }
+
+    /**
+     * Checks whether the row of a component in a form created by {@link #form(String[], Node...)} holds a valid value.
+     *
+     * @param codec The codec of the component.
+     * @param form  The form.
+     * @param index The index of the component.
+     * @param <T>   The type of the component.
+     * @param <N>   The type of the component's node.
+     * @return True if the row holds a valid value, false otherwise.
+     * @see SettingCodec#isNodeValid(Node)
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, N extends Node> boolean isNodeValid(SettingCodec<T, N> codec, GridPane form, int index) {
+        return codec.isNodeValid((N) form.getChildren().get(index * 2 + 1));
+    }
+
+    /**
+     * Writes the value of a component to its row of a form created by {@link #form(String[], Node...)}.
+     * The row shows the fallback if the value is null, as the nodes of most codecs cannot show null.
+     *
+     * @param codec    The codec of the component.
+     * @param value    The value of the component.
+     * @param fallback The value to show if the value is null.
+     * @param form     The form.
+     * @param index    The index of the component.
+     * @param <T>      The type of the component.
+     * @param <N>      The type of the component's node.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, N extends Node> void writeNode(SettingCodec<T, N> codec, T value, T fallback, GridPane form,
+                                                     int index) {
+        codec.valueToNode().accept(value == null ? fallback : value, (N) form.getChildren().get(index * 2 + 1));
+    }
+}
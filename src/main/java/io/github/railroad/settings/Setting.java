@@ -1,18 +1,29 @@
 package io.github.railroad.settings;
 
 import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import javafx.scene.Node;
 import lombok.Getter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 /**
  * Represents a setting in the Railroad plugin system.
@@ -23,6 +34,18 @@ import java.util.function.Supplier;
  * @param <T> The type of the setting's value.
  */
 public class Setting<T> {
+    private static final VarHandle VALUE;
+    private static final VarHandle LISTENERS;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(Setting.class, "value", Object.class);
+            LISTENERS = MethodHandles.lookup().findVarHandle(Setting.class, "listeners", ListenerList.class);
+        } catch (ReflectiveOperationException exception) {
+            throw new ExceptionInInitializerError(exception);
+        }
+    }
+
     /**
      * Unique identifier for the setting.
      * This ID is used to reference the setting in the settings system.
@@ -69,17 +92,44 @@ public class Setting<T> {
     /**
      * List of listeners that are notified when the setting's value changes.
      * This allows other parts of the application to react to changes in the setting.
+     * Holds the shared empty list until the first listener is added, see {@link ListenerList#getOrCreate}.
      */
-    private final List<Consumer<T>> listeners = new CopyOnWriteArrayList<>();
+    private volatile ListenerList<Consumer<T>> listeners = ListenerList.empty();
 
     /**
      * The current value of the setting.
      * This is the value that is actively used by the application.
      * It can be null if the setting allows null values.
+     * The field is volatile so that values written on one thread are visible to readers on any other thread,
+     * and is updated atomically through {@link #VALUE}.
      */
     @Nullable
-    @Getter
-    private T value;
+    private volatile T value;
+
+    /**
+     * A loader for a value that has been loaded lazily but not decoded yet.
+     * It is invoked at most once, on the first read of the value, and cleared afterwards.
+     */
+    @Nullable
+    private volatile LazyValue<? extends T> pendingValue;
+
+    /**
+     * The registry the setting is registered in, which the setting publishes its value changes to so that
+     * {@link SettingsRegistry#snapshot() snapshots} stay current. Null until the setting is registered.
+     */
+    @Nullable
+    private volatile SettingsRegistry registry;
+
+    /**
+     * The slot the setting is registered in, only meaningful once {@link #registry} is set.
+     */
+    private int slot;
+
+    /**
+     * The node of the registry's tree index holding the setting, whose subtree listeners are notified of its changes.
+     */
+    @Nullable
+    private volatile SettingsTree.Node treeNode;
 
     /**
      * Constructs a new Setting builder.
@@ -144,12 +194,23 @@ public class Setting<T> {
         this(id, treePath, codec, type, false, null);
     }
 
+    /**
+     * Gets the current value of the setting.
+     *
+     * @return The current value of the setting, which can be null if the setting allows null values.
+     */
+    public @Nullable T getValue() {
+        resolvePendingValue();
+        return this.value;
+    }
+
     /**
      * Gets the current value of the setting.
      *
      * @return The current value of the setting, or the default value if the current value is null and cannot be null.
      */
     public T getOrDefaultValue() {
+        T value = getValue();
         if (value == null)
             return defaultValue;
 
@@ -163,7 +224,7 @@ public class Setting<T> {
      * @return An Optional containing the current value of the setting, or empty if the value is null and cannot be null.
      */
     public Optional<T> getOptional() {
-        return canBeNull ? Optional.ofNullable(value) : Optional.ofNullable(getOrDefaultValue());
+        return canBeNull ? Optional.ofNullable(getValue()) : Optional.ofNullable(getOrDefaultValue());
     }
 
     /**
@@ -201,38 +262,228 @@ public class Setting<T> {
     }
 
     /**
-     * Gets the current value of the setting.
-     * If the value is null and the setting does not allow nulls, it returns the default value.
+     * Sets the value of the setting and notifies listeners.
+     * If the new value is equivalent to the current value according to the codec, nothing happens;
+     * use {@link #forceUpdate()} to notify listeners regardless.
+     *
+     * @param value The new value of the setting.
+     * @throws IllegalArgumentException If the value is null and the setting cannot be null.
      */
     public void setValue(T value) {
         if (value == null && !canBeNull)
             throw new IllegalArgumentException("Setting value cannot be null");
 
+        if (isEquivalent(getValue(), value))
+            return;
+
+        discardPendingValue();
         this.value = value;
+        publishValue();
         notifyListeners();
     }
 
     /**
-     * Forces an update of the setting's value, notifying all listeners.
+     * Forces an update of the setting's value, notifying all listeners even though the value did not change.
      * This method is typically used when the value is set externally or needs to be refreshed.
      */
     public void forceUpdate() {
-        setValue(this.value);
+        notifyListeners();
     }
 
     /**
-     * Gets the current value of the setting.
-     * If the value is null and the setting does not allow nulls, it returns the default value.
+     * Checks whether two values of the setting are equivalent according to its codec.
+     * Writes of equivalent values do not notify listeners.
+     *
+     * @param first  The first value, can be null.
+     * @param second The second value, can be null.
+     * @return True if the values are equivalent, false otherwise.
+     * @see SettingCodec#isEquivalent(Object, Object)
+     */
+    public boolean isEquivalent(@Nullable T first, @Nullable T second) {
+        return this.codec == null ? Objects.equals(first, second) : this.codec.isEquivalent(first, second);
+    }
+
+    /**
+     * Atomically sets the value of the setting to the given new value if the current value equals the expected value,
+     * notifying listeners if it changed.
+     * Values are compared with {@link Object#equals(Object)}, not by identity, so boxed and other value-based types
+     * behave as expected.
+     *
+     * @param expected The expected current value, can be null.
+     * @param newValue The new value.
+     * @return True if the value was set, false if the current value did not equal the expected value.
+     * @throws IllegalArgumentException If the new value is null and the setting cannot be null.
      */
-    public void addListener(@NotNull Consumer<T> listener) {
+    public boolean compareAndSet(@Nullable T expected, T newValue) {
+        if (newValue == null && !canBeNull)
+            throw new IllegalArgumentException("Setting value cannot be null");
+
+        resolvePendingValue();
+        while (true) {
+            T current = this.value;
+            if (!Objects.equals(current, expected))
+                return false;
+
+            if (VALUE.compareAndSet(this, current, newValue)) {
+                publishValue();
+                if (!isEquivalent(current, newValue)) {
+                    notifyListeners();
+                }
+
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Atomically sets the value of the setting and notifies listeners if it changed.
+     *
+     * @param newValue The new value.
+     * @return The previous value of the setting.
+     * @throws IllegalArgumentException If the new value is null and the setting cannot be null.
+     */
+    @SuppressWarnings("unchecked")
+    public T getAndSet(T newValue) {
+        if (newValue == null && !canBeNull)
+            throw new IllegalArgumentException("Setting value cannot be null");
+
+        resolvePendingValue();
+        T previous = (T) VALUE.getAndSet(this, newValue);
+        publishValue();
+        if (!isEquivalent(previous, newValue)) {
+            notifyListeners();
+        }
+
+        return previous;
+    }
+
+    /**
+     * Atomically updates the value of the setting with the result of the given function and notifies listeners
+     * if it changed. The function may be applied more than once if other threads update the value concurrently,
+     * so it should be free of side effects.
+     *
+     * @param updater The function computing the new value from the current value.
+     * @return The updated value.
+     * @throws IllegalArgumentException If the function returns null and the setting cannot be null.
+     */
+    public T updateAndGet(@NotNull UnaryOperator<T> updater) {
+        resolvePendingValue();
+        while (true) {
+            T current = this.value;
+            T next = updater.apply(current);
+            if (next == null && !canBeNull)
+                throw new IllegalArgumentException("Setting value cannot be null");
+
+            if (isEquivalent(current, next))
+                return current;
+
+            if (VALUE.compareAndSet(this, current, next)) {
+                publishValue();
+                notifyListeners();
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Adds a listener that will be notified when the setting's value changes.
+     *
+     * @param listener The listener to add.
+     * @return A subscription that removes the listener when closed.
+     */
+    public Subscription addListener(@NotNull Consumer<T> listener) {
         if (listener == null)
             throw new IllegalArgumentException("Listener cannot be null");
 
-        this.listeners.add(listener);
+        return subscribe(listener);
+    }
+
+    /**
+     * Adds a listener that will be notified through the given executor when the setting's value changes.
+     * Changing the value only queues the notification, so slow listeners do not hold up the thread changing it.
+     * The listener receives notifications one at a time, in the order the changes were made.
+     *
+     * @param listener The listener to add.
+     * @param executor The executor that runs the listener, see {@link ListenerExecutors}.
+     * @return A subscription that removes the listener when closed.
+     */
+    public Subscription addListener(@NotNull Consumer<T> listener, @NotNull Executor executor) {
+        if (listener == null || executor == null)
+            throw new IllegalArgumentException("Listener and executor cannot be null");
+
+        return subscribe(executor == ListenerExecutors.DIRECT ? listener : new DispatchingListener<>(listener, executor));
     }
 
     /**
-     * Removes a listener from the setting.
+     * Adds a listener that is only held weakly, so that it does not keep itself, or anything it captures, alive.
+     * Once the listener has been garbage collected it is removed automatically. The caller must therefore keep a
+     * strong reference to the listener for as long as it should be notified, typically in a field of its owner;
+     * a lambda passed directly to this method can be collected immediately. Prefer
+     * {@link #addWeakListener(Object, BiConsumer)} when the listener would only be referenced from here.
+     *
+     * @param listener The listener to add.
+     * @return A subscription that removes the listener when closed.
+     */
+    public Subscription addWeakListener(@NotNull Consumer<T> listener) {
+        if (listener == null)
+            throw new IllegalArgumentException("Listener cannot be null");
+
+        return subscribeWeakly(WeakListener.of(listener));
+    }
+
+    /**
+     * Adds a listener that notifies the given owner for as long as the owner is alive, without keeping it alive.
+     * The owner is passed to the action on every change, so the action must not capture it; once the owner has
+     * been garbage collected the listener is removed automatically.
+     *
+     * @param owner  The owner of the listener, such as an editor tab.
+     * @param action The action to run with the owner and the new value.
+     * @param <O>    The type of the owner.
+     * @return A subscription that removes the listener when closed.
+     */
+    public <O> Subscription addWeakListener(@NotNull O owner, @NotNull BiConsumer<? super O, ? super T> action) {
+        if (owner == null || action == null)
+            throw new IllegalArgumentException("Owner and action cannot be null");
+
+        return subscribeWeakly(WeakListener.of(owner, action));
+    }
+
+    /**
+     * Adds a listener that is notified at most once per JavaFX pulse, on the JavaFX Application Thread.
+     * Bursts of changes, such as a text field firing on every keystroke, result in a single notification
+     * carrying the latest value.
+     *
+     * @param listener The listener to add.
+     * @return A subscription that removes the listener when closed.
+     * @see #addCoalescingListener(Consumer, Duration, Executor)
+     */
+    public Subscription addCoalescingListener(@NotNull Consumer<T> listener) {
+        return addCoalescingListener(listener, Duration.ZERO, ListenerExecutors.FX_THREAD);
+    }
+
+    /**
+     * Adds a listener that folds bursts of changes into a single notification carrying the latest value.
+     * The first change after a notification schedules the next one once the interval has passed; further changes
+     * within the interval only replace the value that will be delivered, without allocating.
+     * With a zero interval, changes are coalesced until the executor runs the notification.
+     *
+     * @param listener The listener to add.
+     * @param interval The interval within which changes are coalesced.
+     * @param executor The executor that runs the listener, see {@link ListenerExecutors}.
+     * @return A subscription that removes the listener when closed.
+     */
+    public Subscription addCoalescingListener(@NotNull Consumer<T> listener, @NotNull Duration interval, @NotNull Executor executor) {
+        if (listener == null || interval == null || executor == null)
+            throw new IllegalArgumentException("Listener, interval and executor cannot be null");
+
+        if (interval.isNegative())
+            throw new IllegalArgumentException("Interval cannot be negative");
+
+        return subscribe(new CoalescingListener<>(listener, executor, interval));
+    }
+
+    /**
+     * Removes a listener from the setting, however it was added.
      * The listener will no longer be notified when the setting's value changes.
      *
      * @param listener The listener to remove.
@@ -241,16 +492,242 @@ public class Setting<T> {
         if (listener == null)
             throw new IllegalArgumentException("Listener cannot be null");
 
-        this.listeners.remove(listener);
+        this.listeners.removeFirst(candidate -> DelegatingListener.matches(candidate, listener));
+    }
+
+    private Subscription subscribe(Consumer<T> registered) {
+        ListenerList<Consumer<T>> list = ListenerList.getOrCreate(LISTENERS, this);
+        ListenerList.Entry<Consumer<T>> entry = list.add(registered);
+        return () -> list.remove(entry);
+    }
+
+    /**
+     * Adds a weak listener, purging the weak listeners whose target has been collected from time to time.
+     * Cleared listeners are also removed whenever the setting notifies its listeners, so this only matters for
+     * settings that gain weak listeners without changing.
+     */
+    private Subscription subscribeWeakly(WeakListener<T> registered) {
+        ListenerList<Consumer<T>> list = ListenerList.getOrCreate(LISTENERS, this);
+        ListenerList.Entry<Consumer<T>> entry = list.addAndSweep(registered,
+                listener -> listener instanceof WeakListener<T> weak && weak.isCleared());
+        return () -> list.remove(entry);
+    }
+
+    /**
+     * Sets the value of the setting without notifying listeners, as is done when settings are loaded.
+     * A null value resets the setting to null if it can be null, or to its default value otherwise.
+     *
+     * @param value The loaded value, can be null.
+     */
+    final void loadValue(@Nullable T value) {
+        replaceValue(value);
+        publishValue();
+    }
+
+    /**
+     * Sets the value of the setting without notifying listeners or publishing it to the registry's snapshots,
+     * as is done when several values are applied together and published at once.
+     *
+     * @param value The new value, can be null.
+     * @see SettingsRegistry#publish(java.util.List)
+     */
+    final void replaceValue(@Nullable T value) {
+        discardPendingValue();
+        storeValue(value);
+    }
+
+    /**
+     * Stores a loaded value without notifying listeners or touching a pending lazily loaded value.
+     * A null value resets the setting to null if it can be null, or to its default value otherwise.
+     * Subclasses that store their value themselves override this.
+     *
+     * @param value The loaded value, can be null.
+     */
+    void storeValue(@Nullable T value) {
+        this.value = value == null && !this.canBeNull ? this.defaultValue : value;
+    }
+
+    /**
+     * Defers loading the value of the setting until it is first read, without notifying listeners.
+     * The loader is invoked at most once, from whichever thread reads the value first. If it fails, the setting
+     * falls back to null or its default value, as if nothing had been loaded. Setting or loading a value before
+     * the first read discards the loader.
+     *
+     * @param loader The loader that decodes the value.
+     */
+    void loadValueLazily(@NotNull Supplier<? extends T> loader) {
+        this.pendingValue = new LazyValue<>(loader);
+        publishValue();
+    }
+
+    /**
+     * Checks whether the value of the setting has been loaded lazily and not decoded yet.
+     *
+     * @return True if decoding the value is still pending, false otherwise.
+     */
+    public boolean isValuePending() {
+        return this.pendingValue != null;
+    }
+
+    /**
+     * Gets the raw JSON text of a value that was loaded lazily from JSON and not decoded yet,
+     * so that it can be written back without decoding it.
+     *
+     * @return The JSON text of the pending value, or null if no value loaded from JSON is pending.
+     */
+    @Nullable
+    final String pendingJson() {
+        LazyValue<? extends T> pending = this.pendingValue;
+        return pending != null && pending.pendingLoader() instanceof JsonSettingsStore.RawJson<?> raw ? raw.json() : null;
+    }
+
+    /**
+     * Decodes a lazily loaded value if one is pending.
+     * Subclasses that store their value themselves must call this before reading it.
+     */
+    protected final void resolvePendingValue() {
+        if (this.pendingValue == null)
+            return;
+
+        synchronized (this) {
+            LazyValue<? extends T> loader = this.pendingValue;
+            if (loader == null)
+                return;
+
+            T value = loader.get();
+            // Store before clearing, so that readers observing no pending value also observe the decoded one
+            storeValue(value);
+            this.pendingValue = null;
+        }
+    }
+
+    /**
+     * Discards a lazily loaded value that has not been decoded yet.
+     * Subclasses that store their value themselves must call this before writing it.
+     */
+    protected final void discardPendingValue() {
+        if (this.pendingValue == null)
+            return;
+
+        synchronized (this) {
+            this.pendingValue = null;
+        }
+    }
+
+    /**
+     * Gets the current value of the setting without decoding a pending lazily loaded value.
+     * Subclasses that store their value themselves override this.
+     *
+     * @return The stored value, can be null.
+     */
+    @Nullable
+    T currentValue() {
+        return this.value;
+    }
+
+    /**
+     * Gets the state of the setting as held by the registry's snapshots: either the pending lazily loaded value,
+     * which snapshots decode on demand, or the current value.
+     *
+     * @return The pending value or the current value.
+     */
+    @Nullable
+    final Object currentState() {
+        LazyValue<? extends T> pending = this.pendingValue;
+        return pending != null ? pending : currentValue();
+    }
+
+    /**
+     * Attaches the setting to the registry it is registered in.
+     *
+     * @param registry The registry.
+     * @param slot     The slot assigned to the setting.
+     * @param treeNode The node of the registry's tree index holding the setting.
+     */
+    final void attach(SettingsRegistry registry, int slot, SettingsTree.Node treeNode) {
+        this.slot = slot;
+        this.treeNode = treeNode;
+        this.registry = registry;
+    }
+
+    /**
+     * Gets the registry the setting is registered in.
+     *
+     * @return The registry, or null if the setting is not registered.
+     */
+    final @Nullable SettingsRegistry registry() {
+        return this.registry;
+    }
+
+    /**
+     * Gets the slot the setting is registered in.
+     *
+     * @return The slot, only meaningful if the setting is registered.
+     */
+    final int slot() {
+        return this.slot;
+    }
+
+    /**
+     * Publishes the current value of the setting to the registry's snapshots, if the setting is registered.
+     * Must be called after every write of the value; subclasses that store their value themselves call this too.
+     */
+    protected final void publishValue() {
+        SettingsRegistry registry = this.registry;
+        if (registry != null) {
+            registry.publish(this);
+        }
+    }
+
+    /**
+     * Marks the value of the setting as changed without publishing it, so that it is published when the registry's
+     * next {@link SettingsRegistry#snapshot() snapshot} is taken. Unlike {@link #publishValue()}, this allocates
+     * nothing, which is what keeps the unboxed writes of primitive settings free of allocation.
+     */
+    final void publishValueLazily() {
+        SettingsRegistry registry = this.registry;
+        if (registry != null) {
+            registry.markUnpublished(this.slot);
+        }
+    }
+
+    /**
+     * Checks whether any listeners are registered on the setting, or on a node of the registry's tree index
+     * containing it. Subclasses can use this to avoid preparing a value for listeners that do not exist.
+     *
+     * @return True if at least one listener would be notified, false otherwise.
+     */
+    protected boolean hasListeners() {
+        SettingsTree.Node node = this.treeNode;
+        return !this.listeners.isEmpty() || node != null && node.hasListenersOnPath();
     }
 
     /**
      * Notifies all registered listeners about the change in the setting's value.
      * This method is called whenever the value is set or changed.
+     * Listeners of the setting are notified first, followed by the subtree listeners of the nodes of the
+     * registry's tree index containing it, from the setting's own node up to the root.
      */
-    private void notifyListeners() {
-        for (Consumer<T> listener : this.listeners) {
-            listener.accept(this.value);
+    protected void notifyListeners() {
+        ListenerList<Consumer<T>> listeners = this.listeners;
+        if (!listeners.isEmpty()) {
+            T value = getValue();
+            for (ListenerList.Entry<Consumer<T>> entry : listeners.entries()) {
+                if (entry == null)
+                    break;
+
+                Consumer<T> listener = entry.get();
+                if (listener instanceof WeakListener<T> weak && weak.isCleared()) {
+                    listeners.remove(entry);
+                } else if (listener != null) {
+                    listener.accept(value);
+                }
+            }
+        }
+
+        SettingsTree.Node node = this.treeNode;
+        if (node != null) {
+            node.notifySubtreeListeners(this);
         }
     }
 
@@ -264,7 +741,7 @@ public class Setting<T> {
         if (this.codec == null)
             return null;
 
-        return this.codec.serializeJson(this.value);
+        return this.codec.serializeJson(getValue());
     }
 
     /**
@@ -280,21 +757,12 @@ public class Setting<T> {
         if (this.codec == null)
             throw new IllegalStateException();
 
-        if (json == null) {
-            if (this.canBeNull) {
-                this.value = null;
-            } else {
-                this.value = this.defaultValue;
-            }
-        } else {
-            this.value = this.codec.deserializeJson(json);
-        }
-
-        return this.value;
+        loadValue(json == null ? null : this.codec.deserializeJson(json));
+        return getValue();
     }
 
     /**
-     * Updates the setting's value from a JSON element and notifies listeners.
+     * Updates the setting's value from a JSON element and notifies listeners if it changed.
      * This method is typically used when the setting is updated in a UI or configuration file.
      *
      * @param json The JSON element to update the setting from, can be null.
@@ -302,15 +770,78 @@ public class Setting<T> {
      * @throws IllegalStateException If the codec is null or if deserialization fails.
      */
     public T fromJsonUpdate(@Nullable JsonElement json) throws IllegalStateException {
+        T previous = getValue();
         T value = fromJson(json);
-        notifyListeners();
+        if (!isEquivalent(previous, value)) {
+            notifyListeners();
+        }
+
+        return value;
+    }
+
+    /**
+     * Writes the setting's value directly to a JSON writer using the codec.
+     * Null values, and settings without a codec, are written as JSON null.
+     *
+     * @param writer The writer to write the value to.
+     * @throws IOException If writing to the writer fails.
+     */
+    public void writeJson(JsonWriter writer) throws IOException {
+        T value = getValue();
+        if (this.codec == null || value == null) {
+            writer.nullValue();
+            return;
+        }
+
+        this.codec.encode(writer, value);
+    }
+
+    /**
+     * Reads the setting's value directly from a JSON reader using the codec.
+     * The reader must be positioned at the value, which is fully consumed.
+     * A JSON null is treated the same way as a null element in {@link #fromJson(JsonElement)}.
+     *
+     * @param reader The reader to read the value from.
+     * @return The read value of the setting.
+     * @throws IOException           If reading from the reader fails.
+     * @throws IllegalStateException If the codec is null.
+     */
+    public T readJson(JsonReader reader) throws IOException, IllegalStateException {
+        if (this.codec == null)
+            throw new IllegalStateException("Setting '" + this.id + "' has no codec");
+
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return fromJson(null);
+        }
+
+        loadValue(this.codec.decode(reader));
+        return getValue();
+    }
+
+    /**
+     * Reads the setting's value directly from a JSON reader and notifies listeners if it changed.
+     *
+     * @param reader The reader to read the value from.
+     * @return The read value of the setting.
+     * @throws IOException           If reading from the reader fails.
+     * @throws IllegalStateException If the codec is null.
+     */
+    public T readJsonUpdate(JsonReader reader) throws IOException, IllegalStateException {
+        T previous = getValue();
+        T value = readJson(reader);
+        if (!isEquivalent(previous, value)) {
+            notifyListeners();
+        }
+
         return value;
     }
 
     /**
      * Reads the value from a Node using the codec.
      * If the codec is not set, it returns null.
-     * If the node cannot be converted to the expected type, it throws a ClassCastException.
+     * If the node does not hold a valid value, see {@link SettingCodec#isNodeValid(Node)}, the value of the setting
+     * is left unchanged and returned.
      *
      * @param node The Node to read the value from.
      * @return The value read from the Node, or null if the codec is not set.
@@ -321,6 +852,9 @@ public class Setting<T> {
             return null;
 
         try {
+            if (!isNodeValid(node))
+                return getValue();
+
             @SuppressWarnings("unchecked")
             Function<N, T> nodeToValue = (Function<N, T>) codec.nodeToValue();
             T value = nodeToValue.apply(node);
@@ -331,6 +865,71 @@ public class Setting<T> {
         }
     }
 
+    /**
+     * Checks whether a Node holds a valid value for the setting's codec, see {@link SettingCodec#isNodeValid(Node)}.
+     * A node holding no valid value, such as a text field with a half-typed number, should not be written back.
+     *
+     * @param node The Node to check.
+     * @return True if the node holds a valid value or the codec is not set, false otherwise.
+     * @throws IllegalStateException If the codec does not support reading from nodes.
+     */
+    public <N extends Node> boolean isNodeValid(N node) {
+        if (this.codec == null)
+            return true;
+
+        try {
+            @SuppressWarnings("unchecked")
+            Predicate<N> nodeValidator = (Predicate<N>) codec.nodeValidator();
+            return nodeValidator.test(node);
+        } catch (ClassCastException exception) {
+            throw new IllegalStateException("Codec for setting '" + this.id + "' does not support reading from node", exception);
+        }
+    }
+
+    /**
+     * Gets the value a Node currently displays using the codec, without setting it.
+     * If the codec is not set, it returns null. If the node does not hold a valid value, the result is meaningless;
+     * check {@link #isNodeValid(Node)} first.
+     *
+     * @param node The Node to read the value from.
+     * @return The value displayed by the Node, or null if the codec is not set.
+     * @throws IllegalStateException If the codec does not support reading from nodes.
+     */
+    public <N extends Node> T peekValueFromNode(N node) {
+        if (this.codec == null)
+            return null;
+
+        try {
+            @SuppressWarnings("unchecked")
+            Function<N, T> nodeToValue = (Function<N, T>) codec.nodeToValue();
+            return nodeToValue.apply(node);
+        } catch (ClassCastException exception) {
+            throw new IllegalStateException("Codec for setting '" + this.id + "' does not support reading from node", exception);
+        }
+    }
+
+    /**
+     * Writes the setting's value to an existing Node using the codec, so that a Node created for another setting
+     * with the same codec can be reused instead of creating a new one.
+     * If the codec is not set, nothing happens.
+     *
+     * @param node The Node to write the value to.
+     * @param <N>  The type of the Node.
+     * @throws IllegalStateException If the codec does not support writing to the node.
+     */
+    public <N extends Node> void writeValueToNode(N node) {
+        if (this.codec == null)
+            return;
+
+        try {
+            @SuppressWarnings("unchecked")
+            BiConsumer<T, N> valueToNode = (BiConsumer<T, N>) codec.valueToNode();
+            valueToNode.accept(getValue(), node);
+        } catch (ClassCastException exception) {
+            throw new IllegalStateException("Codec for setting '" + this.id + "' does not support writing to node", exception);
+        }
+    }
+
     /**
      * Creates a Node representation of the setting's value using the codec.
      * If the codec is not set, it returns null.
@@ -341,7 +940,7 @@ public class Setting<T> {
         if (this.codec == null)
             return null;
 
-        return codec.createNode().apply(this.value);
+        return codec.createNode().apply(getValue());
     }
 
     /**
@@ -356,7 +955,8 @@ public class Setting<T> {
         private Class<T> type;
         private boolean canBeNull = false;
         private T defaultValue;
-        private final List<Consumer<T>> listeners = new ArrayList<>();
+        private List<Consumer<T>> listeners = List.of();
+        private SettingCodecRegistry codecRegistry = SettingCodecRegistry.getDefault();
 
         /**
          * Sets the unique identifier for the setting.
@@ -391,6 +991,21 @@ public class Setting<T> {
             return this;
         }
 
+        /**
+         * Sets the registry that the codec is resolved from if none is set explicitly.
+         * Defaults to {@link SettingCodecRegistry#getDefault()}.
+         *
+         * @param codecRegistry The codec registry.
+         * @return This builder instance for method chaining.
+         */
+        public Builder<T> codecRegistry(@NotNull SettingCodecRegistry codecRegistry) {
+            if (codecRegistry == null)
+                throw new IllegalArgumentException("Codec registry cannot be null");
+
+            this.codecRegistry = codecRegistry;
+            return this;
+        }
+
         /**
          * Sets the type of the setting's value.
          *
@@ -434,17 +1049,48 @@ public class Setting<T> {
             if (listener == null)
                 throw new IllegalArgumentException("Listener cannot be null");
 
-            this.listeners.add(listener);
+            addBuilderListener(listener);
+            return this;
+        }
+
+        /**
+         * Adds a listener that will be notified through the given executor when the setting's value changes.
+         *
+         * @param listener The listener to add.
+         * @param executor The executor that runs the listener, see {@link ListenerExecutors}.
+         * @return This builder instance for method chaining.
+         * @see Setting#addListener(Consumer, Executor)
+         */
+        public Builder<T> addListener(@NotNull Consumer<T> listener, @NotNull Executor executor) {
+            if (listener == null || executor == null)
+                throw new IllegalArgumentException("Listener and executor cannot be null");
+
+            addBuilderListener(executor == ListenerExecutors.DIRECT ? listener : new DispatchingListener<>(listener, executor));
             return this;
         }
 
+        private void addBuilderListener(Consumer<T> listener) {
+            if (this.listeners.isEmpty()) {
+                this.listeners = new ArrayList<>();
+            }
+
+            this.listeners.add(listener);
+        }
+
         /**
          * Builds the Setting instance with the provided parameters.
+         * If no codec was set, the codec is resolved from the codec registry by the setting's type.
          *
          * @return A new Setting instance.
-         * @throws IllegalStateException If any required fields are missing.
+         * @throws IllegalStateException If any required fields are missing, or if no codec was set and none is
+         *                               registered for the setting's type.
          */
         public Setting<T> build() {
+            SettingCodec<T, ?> codec = this.codec;
+            if (codec == null && type != null) {
+                codec = this.codecRegistry.find(type);
+            }
+
             if (id == null || treePath == null || codec == null || type == null)
                 throw new IllegalStateException("Setting is missing required fields");
 
@@ -1,22 +1,125 @@
 package io.github.railroad.settings;
 
+import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import javafx.scene.Node;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.TextField;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * A codec for a setting.
+ * <p>
+ * Besides the tree based {@link #serializeJson(Object)} and {@link #deserializeJson(JsonElement)} methods,
+ * codecs can encode and decode directly on a {@link JsonWriter} or {@link JsonReader}. Codecs that do not provide
+ * streaming functions fall back to their tree based functions for the single value being processed.
+ * <p>
+ * Codecs can additionally opt into a compact binary representation, used by {@link BinarySettingsSnapshot},
+ * by providing a binary encoder and decoder.
+ * <p>
+ * Codecs whose nodes can hold input that is not a value, such as a half-typed number, provide a node validator.
+ * Settings are never written from a node the validator rejects, see {@link #isNodeValid(Node)}.
  *
  * @param <T> The type of the setting value.
  * @param <N> The type of the node to display.
  * @see Setting
  * @see DefaultSettingCodecs
+ * @see #listOf(SettingCodec)
  */
 public record SettingCodec<T, N extends Node>(String id, Function<N, T> nodeToValue, BiConsumer<T, N> valueToNode,
                                               Function<JsonElement, T> jsonDecoder,
-                                              Function<T, JsonElement> jsonEncoder, Function<T, N> createNode) {
+                                              Function<T, JsonElement> jsonEncoder, Function<T, N> createNode,
+                                              JsonStreamEncoder<T> streamEncoder, JsonStreamDecoder<T> streamDecoder,
+                                              BinaryEncoder<T> binaryEncoder, BinaryDecoder<T> binaryDecoder,
+                                              BiPredicate<T, T> equivalence, Predicate<N> nodeValidator) {
+    private static final Gson GSON = new Gson();
+
+    /**
+     * Constructs a new SettingCodec, replacing missing streaming functions with ones derived from
+     * the tree based JSON functions. The binary functions are optional and can be null.
+     * A missing equivalence falls back to {@link Object#equals(Object)}, and a missing node validator accepts every node.
+     */
+    public SettingCodec {
+        if (equivalence == null) {
+            equivalence = Object::equals;
+        }
+
+        if (nodeValidator == null) {
+            nodeValidator = node -> true;
+        }
+
+        if ((binaryEncoder == null) != (binaryDecoder == null))
+            throw new IllegalArgumentException("Binary encoder and decoder must be provided together");
+
+        if (streamEncoder == null) {
+            streamEncoder = (writer, value) -> GSON.toJson(treeOrNull(jsonEncoder.apply(value)), writer);
+        }
+
+        if (streamDecoder == null) {
+            streamDecoder = reader -> jsonDecoder.apply(JsonParser.parseReader(reader));
+        }
+    }
+
+    /**
+     * Constructs a new SettingCodec without streaming functions.
+     * Streaming is derived from the tree based JSON functions.
+     *
+     * @param id          The unique identifier for the setting codec.
+     * @param nodeToValue The function to extract the value from a node.
+     * @param valueToNode The function to set the value in a node.
+     * @param jsonDecoder The function to decode a JSON element into a value.
+     * @param jsonEncoder The function to encode a value into a JSON element.
+     * @param createNode  The function to create a node for the setting.
+     */
+    public SettingCodec(String id, Function<N, T> nodeToValue, BiConsumer<T, N> valueToNode,
+                        Function<JsonElement, T> jsonDecoder, Function<T, JsonElement> jsonEncoder,
+                        Function<T, N> createNode) {
+        this(id, nodeToValue, valueToNode, jsonDecoder, jsonEncoder, createNode, null, null, null, null, null, null);
+    }
+
+    /**
+     * Constructs a new SettingCodec whose nodes always hold a valid value.
+     *
+     * @param id            The unique identifier for the setting codec.
+     * @param nodeToValue   The function to extract the value from a node.
+     * @param valueToNode   The function to set the value in a node.
+     * @param jsonDecoder   The function to decode a JSON element into a value.
+     * @param jsonEncoder   The function to encode a value into a JSON element.
+     * @param createNode    The function to create a node for the setting.
+     * @param streamEncoder The function to encode a value to a JSON writer, or null to derive it.
+     * @param streamDecoder The function to decode a value from a JSON reader, or null to derive it.
+     * @param binaryEncoder The function to encode a value to binary, or null.
+     * @param binaryDecoder The function to decode a value from binary, or null.
+     * @param equivalence   The function comparing two non-null values, or null to use equals.
+     */
+    public SettingCodec(String id, Function<N, T> nodeToValue, BiConsumer<T, N> valueToNode,
+                        Function<JsonElement, T> jsonDecoder, Function<T, JsonElement> jsonEncoder,
+                        Function<T, N> createNode, JsonStreamEncoder<T> streamEncoder,
+                        JsonStreamDecoder<T> streamDecoder, BinaryEncoder<T> binaryEncoder,
+                        BinaryDecoder<T> binaryDecoder, BiPredicate<T, T> equivalence) {
+        this(id, nodeToValue, valueToNode, jsonDecoder, jsonEncoder, createNode, streamEncoder, streamDecoder,
+                binaryEncoder, binaryDecoder, equivalence, null);
+    }
+
+    private static JsonElement treeOrNull(JsonElement json) {
+        return json == null ? JsonNull.INSTANCE : json;
+    }
+
     /**
      * Serializes the setting value to JSON.
      *
@@ -37,6 +140,98 @@ public record SettingCodec<T, N extends Node>(String id, Function<N, T> nodeToVa
         return jsonDecoder.apply(json);
     }
 
+    /**
+     * Checks whether a node holds a valid value, such as a text field whose text can be parsed.
+     * The value {@link #nodeToValue()} extracts from a node that does not is meaningless, so settings keep their
+     * value instead of being written from it.
+     *
+     * @param node The node to check.
+     * @return True if the node holds a valid value, false otherwise.
+     */
+    public boolean isNodeValid(N node) {
+        return nodeValidator.test(node);
+    }
+
+    /**
+     * Encodes the setting value directly to a JSON writer.
+     *
+     * @param writer The writer to encode to.
+     * @param value  The value to encode.
+     * @throws IOException If writing to the writer fails.
+     */
+    public void encode(JsonWriter writer, T value) throws IOException {
+        streamEncoder.encode(writer, value);
+    }
+
+    /**
+     * Decodes the setting value directly from a JSON reader.
+     * The reader must be positioned at the value, which is fully consumed.
+     *
+     * @param reader The reader to decode from.
+     * @return The decoded value.
+     * @throws IOException If reading from the reader fails.
+     */
+    public T decode(JsonReader reader) throws IOException {
+        return streamDecoder.decode(reader);
+    }
+
+    /**
+     * Checks whether two setting values are equivalent, meaning that replacing one with the other is not a change.
+     * Null values are only equivalent to each other; non-null values are compared with the codec's equivalence.
+     *
+     * @param first  The first value, can be null.
+     * @param second The second value, can be null.
+     * @return True if the values are equivalent, false otherwise.
+     */
+    public boolean isEquivalent(T first, T second) {
+        if (first == second)
+            return true;
+
+        if (first == null || second == null)
+            return false;
+
+        return equivalence.test(first, second);
+    }
+
+    /**
+     * Checks whether the codec provides a binary representation.
+     *
+     * @return True if the codec has a binary encoder and decoder, false otherwise.
+     */
+    public boolean hasBinaryCodec() {
+        return binaryEncoder != null;
+    }
+
+    /**
+     * Encodes the setting value in the codec's binary representation.
+     *
+     * @param out   The output to encode to.
+     * @param value The value to encode.
+     * @throws IOException                   If writing to the output fails.
+     * @throws UnsupportedOperationException If the codec has no binary representation.
+     */
+    public void encodeBinary(DataOutput out, T value) throws IOException {
+        if (binaryEncoder == null)
+            throw new UnsupportedOperationException("Codec '" + id + "' has no binary representation");
+
+        binaryEncoder.encode(out, value);
+    }
+
+    /**
+     * Decodes the setting value from the codec's binary representation.
+     * The buffer's remaining bytes are exactly those written by {@link #encodeBinary(DataOutput, Object)}.
+     *
+     * @param buffer The buffer to decode from.
+     * @return The decoded value.
+     * @throws UnsupportedOperationException If the codec has no binary representation.
+     */
+    public T decodeBinary(ByteBuffer buffer) {
+        if (binaryDecoder == null)
+            throw new UnsupportedOperationException("Codec '" + id + "' has no binary representation");
+
+        return binaryDecoder.decode(buffer);
+    }
+
     /**
      * Creates a new builder for a SettingCodec.
      *
@@ -62,6 +257,82 @@ public record SettingCodec<T, N extends Node>(String id, Function<N, T> nodeToVa
         return new Builder<T, N>().id(id);
     }
 
+    /**
+     * Creates a codec for lists whose elements are handled by the given codec.
+     * Lists are encoded as JSON arrays, and decoded lists are unmodifiable.
+     *
+     * @param element The codec of the elements.
+     * @param <E>     The type of the elements.
+     * @return The list codec.
+     */
+    public static <E> SettingCodec<List<E>, TextField> listOf(SettingCodec<E, ?> element) {
+        return CompositeSettingCodecs.listOf(element);
+    }
+
+    /**
+     * Creates a codec for sets whose elements are handled by the given codec.
+     * Sets are encoded as JSON arrays, and decoded sets are unmodifiable and keep the encoded order.
+     *
+     * @param element The codec of the elements.
+     * @param <E>     The type of the elements.
+     * @return The set codec.
+     */
+    public static <E> SettingCodec<Set<E>, TextField> setOf(SettingCodec<E, ?> element) {
+        return CompositeSettingCodecs.setOf(element);
+    }
+
+    /**
+     * Creates a codec for maps with string keys whose values are handled by the given codec.
+     * Maps are encoded as JSON objects, and decoded maps are unmodifiable and keep the encoded order.
+     *
+     * @param value The codec of the values.
+     * @param <V>   The type of the values.
+     * @return The map codec.
+     */
+    public static <V> SettingCodec<Map<String, V>, TextField> mapOf(SettingCodec<V, ?> value) {
+        return CompositeSettingCodecs.mapOf(value);
+    }
+
+    /**
+     * Creates a codec for optionals whose value is handled by the given codec.
+     * An optional is encoded as a JSON array holding its value, or as an empty array if it is empty.
+     * JSON {@code null} is also decoded as an empty optional.
+     *
+     * @param element The codec of the value.
+     * @param <E>     The type of the value.
+     * @return The optional codec.
+     */
+    public static <E> SettingCodec<Optional<E>, TextField> optionalOf(SettingCodec<E, ?> element) {
+        return CompositeSettingCodecs.optionalOf(element);
+    }
+
+    /**
+     * Creates a codec for the constants of the given enum, encoded by name.
+     * The constants are looked up once, when the codec is created.
+     *
+     * @param type The enum class.
+     * @param <E>  The type of the enum.
+     * @return The enum codec.
+     * @throws IllegalArgumentException If the class is not an enum.
+     */
+    public static <E extends Enum<E>> SettingCodec<E, ComboBox<E>> enumByName(Class<E> type) {
+        return CompositeSettingCodecs.enumByName(type);
+    }
+
+    /**
+     * Creates a codec for the constants of the given enum, encoded by ordinal.
+     * This is more compact than {@link #enumByName(Class)}, but the encoded values change meaning
+     * when constants are reordered.
+     *
+     * @param type The enum class.
+     * @param <E>  The type of the enum.
+     * @return The enum codec.
+     * @throws IllegalArgumentException If the class is not an enum.
+     */
+    public static <E extends Enum<E>> SettingCodec<E, ComboBox<E>> enumByOrdinal(Class<E> type) {
+        return CompositeSettingCodecs.enumByOrdinal(type);
+    }
+
     /**
      * Builder class for creating instances of SettingCodec.
      *
@@ -75,6 +346,12 @@ public record SettingCodec<T, N extends Node>(String id, Function<N, T> nodeToVa
         private Function<JsonElement, T> jsonDecoder;
         private Function<T, JsonElement> jsonEncoder;
         private Function<T, N> createNode;
+        private JsonStreamEncoder<T> streamEncoder;
+        private JsonStreamDecoder<T> streamDecoder;
+        private BinaryEncoder<T> binaryEncoder;
+        private BinaryDecoder<T> binaryDecoder;
+        private BiPredicate<T, T> equivalence;
+        private Predicate<N> nodeValidator;
 
         /**
          * Constructs a Builder with default values.
@@ -155,6 +432,68 @@ public record SettingCodec<T, N extends Node>(String id, Function<N, T> nodeToVa
             return this;
         }
 
+        /**
+         * Sets the function to encode a value directly to a JSON writer.
+         * If not set, the {@link #jsonEncoder(Function) JSON encoder} is used instead.
+         *
+         * @param streamEncoder The function to encode value to a JSON writer.
+         * @return The Builder instance for chaining.
+         */
+        public Builder<T, N> streamEncoder(JsonStreamEncoder<T> streamEncoder) {
+            this.streamEncoder = streamEncoder;
+            return this;
+        }
+
+        /**
+         * Sets the function to decode a value directly from a JSON reader.
+         * If not set, the {@link #jsonDecoder(Function) JSON decoder} is used instead.
+         *
+         * @param streamDecoder The function to decode value from a JSON reader.
+         * @return The Builder instance for chaining.
+         */
+        public Builder<T, N> streamDecoder(JsonStreamDecoder<T> streamDecoder) {
+            this.streamDecoder = streamDecoder;
+            return this;
+        }
+
+        /**
+         * Sets the functions to encode and decode the value in a compact binary representation.
+         *
+         * @param binaryEncoder The function to encode value to binary.
+         * @param binaryDecoder The function to decode value from binary.
+         * @return The Builder instance for chaining.
+         */
+        public Builder<T, N> binary(BinaryEncoder<T> binaryEncoder, BinaryDecoder<T> binaryDecoder) {
+            this.binaryEncoder = binaryEncoder;
+            this.binaryDecoder = binaryDecoder;
+            return this;
+        }
+
+        /**
+         * Sets the function that decides whether two non-null values are equivalent.
+         * If not set, values are compared with {@link Object#equals(Object)}.
+         *
+         * @param equivalence The function comparing two non-null values.
+         * @return The Builder instance for chaining.
+         */
+        public Builder<T, N> equivalence(BiPredicate<T, T> equivalence) {
+            this.equivalence = equivalence;
+            return this;
+        }
+
+        /**
+         * Sets the function that checks whether a node holds a valid value.
+         * Settings are not written from a node it rejects, so input such as a half-typed number leaves the setting
+         * unchanged. If not set, every node is valid.
+         *
+         * @param nodeValidator The function checking a node.
+         * @return The Builder instance for chaining.
+         */
+        public Builder<T, N> nodeValidator(Predicate<N> nodeValidator) {
+            this.nodeValidator = nodeValidator;
+            return this;
+        }
+
         /**
          * Builds and returns a new SettingCodec instance with the specified parameters.
          *
@@ -164,7 +503,76 @@ public record SettingCodec<T, N extends Node>(String id, Function<N, T> nodeToVa
             if (id == null)
                 throw new IllegalStateException("ID must be set before building the SettingCodec");
 
-            return new SettingCodec<>(id, nodeToValue, valueToNode, jsonDecoder, jsonEncoder, createNode);
+            return new SettingCodec<>(id, nodeToValue, valueToNode, jsonDecoder, jsonEncoder, createNode,
+                    streamEncoder, streamDecoder, binaryEncoder, binaryDecoder, equivalence, nodeValidator);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Encodes a value directly to a {@link JsonWriter}.
+     *
+     * @param <T> The type of the setting value.
+     */
+    @FunctionalInterface
+    public interface JsonStreamEncoder<T> {
+        /**
+         * Encodes the value to the writer.
+         *
+         * @param writer The writer to encode to.
+         * @param value  The value to encode.
+         * @throws IOException If writing to the writer fails.
+         */
+        void encode(JsonWriter writer, T value) throws IOException;
+    }
+
+    /**
+     * Decodes a value directly from a {@link JsonReader}.
+     *
+     * @param <T> The type of the setting value.
+     */
+    @FunctionalInterface
+    public interface JsonStreamDecoder<T> {
+        /**
+         * Decodes the value the reader is positioned at.
+         *
+         * @param reader The reader to decode from.
+         * @return The decoded value.
+         * @throws IOException If reading from the reader fails.
+         */
+        T decode(JsonReader reader) throws IOException;
+    }
+
+    /**
+     * Encodes a value in a compact binary representation.
+     *
+     * @param <T> The type of the setting value.
+     */
+    @FunctionalInterface
+    public interface BinaryEncoder<T> {
+        /**
+         * Encodes the value to the output.
+         *
+         * @param out   The output to encode to.
+         * @param value The value to encode, never null.
+         * @throws IOException If writing to the output fails.
+         */
+        void encode(DataOutput out, T value) throws IOException;
+    }
+
+    /**
+     * Decodes a value from a compact binary representation.
+     *
+     * @param <T> The type of the setting value.
+     */
+    @FunctionalInterface
+    public interface BinaryDecoder<T> {
+        /**
+         * Decodes the value from the buffer.
+         * The buffer's remaining bytes are exactly those written by the matching {@link BinaryEncoder}.
+         *
+         * @param buffer The buffer to decode from.
+         * @return The decoded value.
+         */
+        T decode(ByteBuffer buffer);
+    }
+}
@@ -0,0 +1,186 @@
+package io.github.railroad.settings;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Resolves codecs by the type of the value they handle, and by their ID.
+ * <p>
+ * Codecs are registered for a type, either a {@link Class} or a generic type such as {@code List<String>}, which can
+ * be obtained with Gson's {@link com.google.gson.reflect.TypeToken}. Types without a registered codec are offered to
+ * the registered {@link Factory factories}, which typically build codecs for generic containers from the codecs of
+ * their element types. Every codec that is resolved is cached, so resolving a type or looking up a codec by ID is a
+ * single lock-free map lookup after the first time.
+ * <p>
+ * The {@link #getDefault() default registry} holds the {@link DefaultSettingCodecs}, resolves lists, sets, maps
+ * with string keys, optionals and enums through the {@link SettingCodec#listOf(SettingCodec) composite codecs},
+ * and is used by {@link Setting.Builder#build()} when no codec was set.
+ */
+public final class SettingCodecRegistry {
+    private static final SettingCodecRegistry DEFAULT = createDefault();
+
+    private final Map<Type, SettingCodec<?, ?>> byType = new ConcurrentHashMap<>();
+    private final Map<String, SettingCodec<?, ?>> byId = new ConcurrentHashMap<>();
+    private final List<Factory> factories = new CopyOnWriteArrayList<>();
+
+    /**
+     * Gets the default registry, which holds the {@link DefaultSettingCodecs} for both the boxed and the primitive
+     * types. Plugins can register their own codecs and factories in it.
+     *
+     * @return The default registry.
+     */
+    public static SettingCodecRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Registers a codec for the given class.
+     *
+     * @param type  The class of the values the codec handles.
+     * @param codec The codec.
+     * @param <T>   The type of the values.
+     * @throws IllegalArgumentException If a different codec with the same ID is already registered.
+     */
+    public <T> void register(@NotNull Class<T> type, @NotNull SettingCodec<T, ?> codec) {
+        register((Type) type, codec);
+    }
+
+    /**
+     * Registers a codec for the given type, which can be a generic type.
+     * A codec registered for a type replaces the one previously registered or resolved for it.
+     *
+     * @param type  The type of the values the codec handles.
+     * @param codec The codec.
+     * @throws IllegalArgumentException If a different codec with the same ID is already registered.
+     */
+    public void register(@NotNull Type type, @NotNull SettingCodec<?, ?> codec) {
+        if (type == null || codec == null)
+            throw new IllegalArgumentException("Type and codec cannot be null");
+
+        registerId(codec);
+        this.byType.put(type, codec);
+    }
+
+    /**
+     * Registers a factory that is asked for a codec when a type has none registered.
+     * Factories are asked in the order they were registered.
+     *
+     * @param factory The factory.
+     */
+    public void registerFactory(@NotNull Factory factory) {
+        if (factory == null)
+            throw new IllegalArgumentException("Factory cannot be null");
+
+        this.factories.add(factory);
+    }
+
+    /**
+     * Finds the codec for the given class.
+     *
+     * @param type The class of the values.
+     * @param <T>  The type of the values.
+     * @return The codec, or null if none is registered and no factory can create one.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> @Nullable SettingCodec<T, ?> find(@NotNull Class<T> type) {
+        return (SettingCodec<T, ?>) find((Type) type);
+    }
+
+    /**
+     * Finds the codec for the given type, which can be a generic type.
+     *
+     * @param type The type of the values.
+     * @return The codec, or null if none is registered and no factory can create one.
+     */
+    public @Nullable SettingCodec<?, ?> find(@NotNull Type type) {
+        SettingCodec<?, ?> codec = this.byType.get(type);
+        if (codec != null)
+            return codec;
+
+        // Not computeIfAbsent, since factories resolve element types through this method recursively
+        for (Factory factory : this.factories) {
+            codec = factory.create(type, this);
+            if (codec != null) {
+                SettingCodec<?, ?> existing = this.byType.putIfAbsent(type, codec);
+                if (existing != null)
+                    return existing;
+
+                this.byId.putIfAbsent(codec.id(), codec);
+                return codec;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the codec for the given class.
+     *
+     * @param type The class of the values.
+     * @param <T>  The type of the values.
+     * @return The codec.
+     * @throws IllegalArgumentException If no codec is registered and no factory can create one.
+     */
+    public <T> SettingCodec<T, ?> get(@NotNull Class<T> type) {
+        SettingCodec<T, ?> codec = find(type);
+        if (codec == null)
+            throw new IllegalArgumentException("No codec registered for " + type.getName());
+
+        return codec;
+    }
+
+    /**
+     * Finds a codec by its ID, such as the codec ID recorded for a setting that is not registered.
+     * Codecs created by factories can only be found once they have been resolved by type.
+     *
+     * @param id The ID of the codec.
+     * @return The codec, or null if no codec with the ID is known.
+     */
+    public @Nullable SettingCodec<?, ?> findById(String id) {
+        return this.byId.get(id);
+    }
+
+    private void registerId(SettingCodec<?, ?> codec) {
+        SettingCodec<?, ?> existing = this.byId.putIfAbsent(codec.id(), codec);
+        if (existing != null && existing != codec)
+            throw new IllegalArgumentException("A different codec with ID '" + codec.id() + "' is already registered");
+    }
+
+    private static SettingCodecRegistry createDefault() {
+        var registry = new SettingCodecRegistry();
+        registry.register(Boolean.class, DefaultSettingCodecs.BOOLEAN);
+        registry.register(boolean.class, DefaultSettingCodecs.BOOLEAN);
+        registry.register(String.class, DefaultSettingCodecs.STRING);
+        registry.register(Integer.class, DefaultSettingCodecs.INTEGER);
+        registry.register(int.class, DefaultSettingCodecs.INTEGER);
+        registry.register(Double.class, DefaultSettingCodecs.DOUBLE);
+        registry.register(double.class, DefaultSettingCodecs.DOUBLE);
+        registry.register(Float.class, DefaultSettingCodecs.FLOAT);
+        registry.register(float.class, DefaultSettingCodecs.FLOAT);
+        registry.register(Long.class, DefaultSettingCodecs.LONG);
+        registry.register(long.class, DefaultSettingCodecs.LONG);
+        registry.registerFactory(CompositeSettingCodecs.FACTORY);
+        return registry;
+    }
+
+    /**
+     * Creates codecs for types that have none registered, typically generic containers.
+     */
+    @FunctionalInterface
+    public interface Factory {
+        /**
+         * Creates a codec for the given type.
+         *
+         * @param type     The type of the values.
+         * @param registry The registry, used to resolve the codecs of element types.
+         * @return The codec, or null if this factory does not handle the type.
+         */
+        @Nullable SettingCodec<?, ?> create(@NotNull Type type, @NotNull SettingCodecRegistry registry);
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.railroad.settings;
+
+import lombok.Getter;
+
+/**
+ * A typed handle to a setting registered in a {@link SettingsRegistry}.
+ * Keys are handed out by the registry on registration and resolve to their setting
+ * through a plain array index, avoiding string hashing on hot paths.
+ *
+ * @param <T> The type of the setting's value.
+ * @see SettingsRegistry
+ */
+public final class SettingKey<T> {
+    /**
+     * The registry that issued this key.
+     * Keys are only valid for the registry that created them.
+     */
+    final SettingsRegistry registry;
+
+    /**
+     * The dense slot assigned to the setting by the registry.
+     */
+    @Getter
+    private final int slot;
+
+    /**
+     * The unique identifier of the setting this key refers to.
+     */
+    @Getter
+    private final String id;
+
+    /**
+     * The type of the setting's value.
+     */
+    @Getter
+    private final Class<T> type;
+
+    SettingKey(SettingsRegistry registry, int slot, String id, Class<T> type) {
+        this.registry = registry;
+        this.slot = slot;
+        this.id = id;
+        this.type = type;
+    }
+
+    @Override
+    public String toString() {
+        return "SettingKey[" + this.id + "@" + this.slot + "]";
+    }
+}
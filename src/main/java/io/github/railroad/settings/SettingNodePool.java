@@ -0,0 +1,126 @@
+package io.github.railroad.settings;
+
+import javafx.scene.Node;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * A bounded pool of setting controls, keyed by the ID of the codec that created them.
+ * <p>
+ * Controls that are no longer shown, for example because a settings page was closed, are {@link #release released}
+ * into the pool and later {@link #acquire acquired} for another setting with the same codec, which rebinds them
+ * through {@link SettingCodec#valueToNode()} instead of creating new ones. When the pool is full, the control that
+ * was released longest ago is evicted, whatever its codec.
+ * <p>
+ * A pool can be shared by several settings pages, see {@link SettingsListView#SettingsListView(java.util.Collection, SettingNodePool)}.
+ * It must only be used on the JavaFX Application Thread.
+ */
+public class SettingNodePool {
+    private final int maxSize;
+    private final Map<String, ArrayDeque<Pooled>> byCodec = new HashMap<>();
+    private final LinkedHashSet<Pooled> releaseOrder = new LinkedHashSet<>();
+
+    /**
+     * Constructs a new SettingNodePool.
+     *
+     * @param maxSize The maximum number of pooled controls, across all codecs.
+     */
+    public SettingNodePool(int maxSize) {
+        if (maxSize < 0)
+            throw new IllegalArgumentException("Maximum size cannot be negative");
+
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets a control showing the value of the given setting, reusing a pooled control of the setting's codec
+     * if there is one and creating a new one otherwise.
+     *
+     * @param setting The setting to show.
+     * @return The control, or null if the setting has no codec.
+     */
+    public @Nullable Node acquire(@NotNull Setting<?> setting) {
+        SettingCodec<?, ?> codec = setting.getCodec();
+        if (codec == null)
+            return null;
+
+        ArrayDeque<Pooled> pooled = this.byCodec.get(codec.id());
+        if (pooled == null || pooled.isEmpty())
+            return setting.createNode();
+
+        Pooled entry = pooled.pollLast();
+        this.releaseOrder.remove(entry);
+        setting.writeValueToNode(entry.node());
+        return entry.node();
+    }
+
+    /**
+     * Returns a control that is no longer shown to the pool.
+     * The control must have been removed from the scene graph, and must have been created by the given codec.
+     *
+     * @param codecId The ID of the codec that created the control.
+     * @param node    The control.
+     */
+    public void release(@NotNull String codecId, @NotNull Node node) {
+        if (codecId == null || node == null)
+            throw new IllegalArgumentException("Codec ID and node cannot be null");
+
+        if (this.maxSize == 0)
+            return;
+
+        var entry = new Pooled(codecId, node);
+        this.byCodec.computeIfAbsent(codecId, key -> new ArrayDeque<>()).addLast(entry);
+        this.releaseOrder.add(entry);
+        if (this.releaseOrder.size() > this.maxSize) {
+            Iterator<Pooled> oldest = this.releaseOrder.iterator();
+            Pooled evicted = oldest.next();
+            oldest.remove();
+            // Each codec's controls are in release order too, so the oldest one overall is first in its codec
+            this.byCodec.get(evicted.codecId()).pollFirst();
+        }
+    }
+
+    /**
+     * Gets the number of pooled controls.
+     *
+     * @return The number of pooled controls.
+     */
+    public int size() {
+        return this.releaseOrder.size();
+    }
+
+    /**
+     * Removes all pooled controls.
+     */
+    public void clear() {
+        this.byCodec.clear();
+        this.releaseOrder.clear();
+    }
+
+    /**
+     * A pooled control. Entries compare by identity, so the same control can never be confused with another.
+     */
+    private static final class Pooled {
+        private final String codecId;
+        private final Node node;
+
+        private Pooled(String codecId, Node node) {
+            this.codecId = codecId;
+            this.node = node;
+        }
+
+        private String codecId() {
+            return this.codecId;
+        }
+
+        private Node node() {
+            return this.node;
+        }
+    }
+}
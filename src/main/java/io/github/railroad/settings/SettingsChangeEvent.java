@@ -0,0 +1,47 @@
+package io.github.railroad.settings;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * A batch of setting changes that were applied together, for example by a {@link SettingsTransaction}.
+ * Every change in the event was already applied when the event is delivered.
+ *
+ * @param changes The changes, in the order they were staged.
+ * @see SettingsRegistry#addBatchListener(java.util.function.Consumer)
+ */
+public record SettingsChangeEvent(List<Change<?>> changes) {
+    /**
+     * Constructs a new SettingsChangeEvent with an immutable copy of the changes.
+     */
+    public SettingsChangeEvent {
+        changes = List.copyOf(changes);
+    }
+
+    /**
+     * Checks whether the setting with the given ID changed.
+     *
+     * @param id The ID of the setting.
+     * @return True if the setting is part of this event, false otherwise.
+     */
+    public boolean contains(String id) {
+        for (Change<?> change : changes) {
+            if (change.setting().getId().equals(id))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * A single changed setting.
+     *
+     * @param setting  The setting that changed.
+     * @param oldValue The value before the change, can be null.
+     * @param newValue The value after the change, can be null.
+     * @param <T>      The type of the setting's value.
+     */
+    public record Change<T>(Setting<T> setting, @Nullable T oldValue, @Nullable T newValue) {
+    }
+}
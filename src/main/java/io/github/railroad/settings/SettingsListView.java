@@ -0,0 +1,203 @@
+package io.github.railroad.settings;
+
+import javafx.collections.FXCollections;
+import javafx.scene.Node;
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A virtualized list of settings, each shown with its ID and an editing control created by its codec.
+ * <p>
+ * Controls are only created for the rows that are visible: the list reuses its cells while scrolling, and a cell
+ * rebound to a setting with the same codec as its previous one keeps its control and rebinds it through
+ * {@link SettingCodec#valueToNode()} instead of creating a new one. Opening the list therefore costs the same no
+ * matter how many settings it holds.
+ * <p>
+ * Controls of a different codec come from a {@link SettingNodePool}, and go back to it when a cell switches codecs,
+ * when a cell goes empty, or when the list is {@link #dispose() disposed}. Sharing one pool between settings pages
+ * lets controls be recycled when the user flips between categories.
+ * <p>
+ * Edits made in a control are written back to its setting when the cell is rebound to another setting, and for all
+ * visible rows when {@link #commitEdits()} is called. Only values the user actually changed are written back, so a
+ * setting changed elsewhere while shown is not overwritten; such changes are shown in the control on the next pulse.
+ * Controls whose input is not a valid value, see {@link SettingCodec#isNodeValid(Node)}, are not written back.
+ * The list must only be used on the JavaFX Application Thread.
+ */
+public class SettingsListView extends ListView<Setting<?>> {
+    private static final int DEFAULT_POOL_SIZE = 32;
+
+    /**
+     * The cells currently bound to a setting. Cells leave the set when they go empty, so the list only ever tracks
+     * as many cells as rows it shows, and cells it discards are not kept alive here.
+     */
+    private final Set<SettingCell> boundCells = new HashSet<>();
+    private final SettingNodePool pool;
+
+    /**
+     * Constructs a new SettingsListView showing the given settings, with a pool of its own.
+     *
+     * @param settings The settings to show, in order.
+     */
+    public SettingsListView(@NotNull Collection<? extends Setting<?>> settings) {
+        this(settings, new SettingNodePool(DEFAULT_POOL_SIZE));
+    }
+
+    /**
+     * Constructs a new SettingsListView showing the given settings.
+     *
+     * @param settings The settings to show, in order.
+     * @param pool     The pool that controls are taken from and returned to.
+     */
+    public SettingsListView(@NotNull Collection<? extends Setting<?>> settings, @NotNull SettingNodePool pool) {
+        super(FXCollections.observableArrayList(settings));
+        if (pool == null)
+            throw new IllegalArgumentException("Pool cannot be null");
+
+        this.pool = pool;
+        setCellFactory(listView -> new SettingCell(this.pool, this.boundCells));
+    }
+
+    /**
+     * Writes the edits made in the visible rows back to their settings.
+     * Call this before the list is hidden, for example when the settings page is applied or closed.
+     */
+    public void commitEdits() {
+        for (SettingCell cell : this.boundCells) {
+            cell.commitEdit();
+        }
+    }
+
+    /**
+     * Writes pending edits back, detaches every row from its setting so the list no longer listens for changes,
+     * and returns the controls to the pool. Call this once the list is closed for good.
+     */
+    public void dispose() {
+        for (SettingCell cell : List.copyOf(this.boundCells)) {
+            cell.unbind();
+            cell.releaseControl();
+        }
+    }
+
+    /**
+     * A row showing a single setting.
+     * The control is kept across rebinding, together with the ID of the codec that created it, and released to the
+     * pool when the row goes empty.
+     */
+    private static final class SettingCell extends ListCell<Setting<?>> {
+        private final SettingNodePool pool;
+        private final Set<SettingCell> boundCells;
+        private @Nullable Setting<?> bound;
+        private @Nullable Node control;
+        private @Nullable String controlCodecId;
+        private @Nullable Object shownValue;
+        private @Nullable Subscription subscription;
+
+        private SettingCell(SettingNodePool pool, Set<SettingCell> boundCells) {
+            this.pool = pool;
+            this.boundCells = boundCells;
+            setContentDisplay(ContentDisplay.RIGHT);
+        }
+
+        @Override
+        protected void updateItem(Setting<?> setting, boolean empty) {
+            super.updateItem(setting, empty);
+            if (!empty && setting == this.bound)
+                return;
+
+            unbind();
+            if (empty || setting == null) {
+                setText(null);
+                releaseControl();
+                return;
+            }
+
+            bind(setting);
+        }
+
+        private <T> void bind(Setting<T> setting) {
+            this.bound = setting;
+            this.boundCells.add(this);
+            setText(setting.getId());
+
+            SettingCodec<T, ?> codec = setting.getCodec();
+            if (codec == null) {
+                setGraphic(null);
+                return;
+            }
+
+            Node previous = this.control;
+            String previousCodecId = this.controlCodecId;
+            if (previous != null && codec.id().equals(previousCodecId)) {
+                setting.writeValueToNode(previous);
+            } else {
+                this.control = this.pool.acquire(setting);
+                this.controlCodecId = codec.id();
+            }
+
+            this.shownValue = setting.getValue();
+            setGraphic(this.control);
+            if (previous != null && previous != this.control) {
+                this.pool.release(previousCodecId, previous);
+            }
+
+            this.subscription = setting.addCoalescingListener(value -> {
+                if (this.bound == setting && this.control != null) {
+                    setting.writeValueToNode(this.control);
+                    this.shownValue = setting.getValue();
+                }
+            });
+        }
+
+        private void unbind() {
+            if (this.bound == null)
+                return;
+
+            commitEdit();
+            if (this.subscription != null) {
+                this.subscription.close();
+                this.subscription = null;
+            }
+
+            this.bound = null;
+            this.shownValue = null;
+            this.boundCells.remove(this);
+        }
+
+        private void releaseControl() {
+            if (this.control == null)
+                return;
+
+            setGraphic(null);
+            this.pool.release(this.controlCodecId, this.control);
+            this.control = null;
+            this.controlCodecId = null;
+        }
+
+        private void commitEdit() {
+            if (this.bound != null && this.bound.getCodec() != null && this.control != null) {
+                commitEdit(this.bound);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> void commitEdit(Setting<T> setting) {
+            // Input that is not a value yet, such as a half-typed number, leaves the setting as it is
+            if (!setting.isNodeValid(this.control))
+                return;
+
+            T edited = setting.peekValueFromNode(this.control);
+            if (!setting.isEquivalent(edited, (T) this.shownValue)) {
+                setting.setValue(edited);
+                this.shownValue = setting.getValue();
+            }
+        }
+    }
+}
@@ -0,0 +1,515 @@
+package io.github.railroad.settings;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A central registry of settings.
+ * Each registered setting is assigned a dense integer slot and is referenced through a typed
+ * {@link SettingKey}, so that reading a setting on a hot path is an array index rather than a string lookup.
+ * String based lookups are still available for cold paths such as loading and saving.
+ */
+public class SettingsRegistry {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int UNPUBLISHED_CHUNK_SHIFT = 12;
+    private static final int UNPUBLISHED_CHUNK_WORDS = (1 << UNPUBLISHED_CHUNK_SHIFT) / Long.SIZE;
+    private static final VarHandle SNAPSHOT;
+
+    static {
+        try {
+            SNAPSHOT = MethodHandles.lookup().findVarHandle(SettingsRegistry.class, "snapshot", SettingsSnapshot.class);
+        } catch (ReflectiveOperationException exception) {
+            throw new ExceptionInInitializerError(exception);
+        }
+    }
+
+    /**
+     * Keys indexed by setting ID, used for string based lookups.
+     */
+    private final Map<String, SettingKey<?>> keysById = new ConcurrentHashMap<>();
+
+    /**
+     * Settings indexed by slot.
+     * The array reference is reassigned after every registration so that readers always observe fully
+     * published slots.
+     */
+    private volatile Setting<?>[] slots = new Setting<?>[INITIAL_CAPACITY];
+
+    /**
+     * The number of registered settings, which is also the next free slot.
+     */
+    private volatile int size;
+
+    /**
+     * Index of the registered settings by tree path, maintained on registration.
+     */
+    private final SettingsTree tree = new SettingsTree();
+
+    /**
+     * Search index over the IDs and tree paths of the registered settings, maintained on registration.
+     */
+    private final SettingsSearchIndex searchIndex = new SettingsSearchIndex();
+
+    /**
+     * The latest snapshot of the values of all settings.
+     * Settings publish changes of their value here, and the reference is swapped atomically
+     * through {@link #SNAPSHOT}.
+     */
+    private volatile SettingsSnapshot snapshot = new SettingsSnapshot(this, SlotTrie.EMPTY, 0, 0);
+
+    /**
+     * One bit per slot, set for settings that changed without publishing their value, see {@link #markUnpublished(int)}.
+     * The bits are kept in chunks of a fixed size, so that growing the set on registration never moves a bit
+     * a writer may be setting concurrently.
+     */
+    private volatile AtomicLongArray[] unpublished = {new AtomicLongArray(UNPUBLISHED_CHUNK_WORDS)};
+
+    /**
+     * Whether any bit of {@link #unpublished} may be set. Set after the bit, and cleared before the bits are taken.
+     */
+    private volatile boolean hasUnpublished;
+
+    /**
+     * Lock separating transaction commits from atomic reads.
+     */
+    private final StampedLock commitLock = new StampedLock();
+
+    /**
+     * Listeners that are notified once per batch of changes applied together.
+     */
+    private final List<Consumer<SettingsChangeEvent>> batchListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a setting and assigns it a slot.
+     *
+     * @param setting The setting to register.
+     * @param <T>     The type of the setting's value.
+     * @return The key that can be used to access the setting.
+     * @throws IllegalArgumentException If a setting with the same ID is already registered,
+     *                                  or if the setting is already registered in a registry.
+     */
+    public synchronized <T> SettingKey<T> register(@NotNull Setting<T> setting) {
+        if (setting == null)
+            throw new IllegalArgumentException("Setting cannot be null");
+
+        if (this.keysById.containsKey(setting.getId()))
+            throw new IllegalArgumentException("Setting with ID '" + setting.getId() + "' is already registered");
+
+        if (setting.registry() != null)
+            throw new IllegalArgumentException("Setting '" + setting.getId() + "' is already registered in a registry");
+
+        int slot = this.size;
+        Setting<?>[] array = this.slots;
+        if (slot == array.length) {
+            array = Arrays.copyOf(array, array.length * 2);
+        }
+
+        array[slot] = setting;
+        AtomicLongArray[] chunks = this.unpublished;
+        if (slot >>> UNPUBLISHED_CHUNK_SHIFT == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length + 1);
+            chunks[chunks.length - 1] = new AtomicLongArray(UNPUBLISHED_CHUNK_WORDS);
+            this.unpublished = chunks;
+        }
+
+        setting.attach(this, slot, this.tree.add(setting));
+        var key = new SettingKey<>(this, slot, setting.getId(), setting.getType());
+        this.keysById.put(setting.getId(), key);
+        this.slots = array;
+        this.size = slot + 1;
+        publish(setting);
+        this.searchIndex.add(setting);
+        return key;
+    }
+
+    /**
+     * Builds a setting from the given builder and registers it.
+     *
+     * @param builder The builder to build the setting from.
+     * @param <T>     The type of the setting's value.
+     * @return The key that can be used to access the setting.
+     * @throws IllegalArgumentException If a setting with the same ID is already registered.
+     * @throws IllegalStateException    If the builder is missing required fields.
+     */
+    public <T> SettingKey<T> register(@NotNull Setting.Builder<T> builder) {
+        if (builder == null)
+            throw new IllegalArgumentException("Builder cannot be null");
+
+        return register(builder.build());
+    }
+
+    /**
+     * Gets the setting referenced by the given key.
+     *
+     * @param key The key of the setting.
+     * @param <T> The type of the setting's value.
+     * @return The setting referenced by the key.
+     * @throws IllegalArgumentException If the key was issued by a different registry.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Setting<T> get(@NotNull SettingKey<T> key) {
+        if (key.registry != this)
+            throw new IllegalArgumentException("Key '" + key.getId() + "' does not belong to this registry");
+
+        return (Setting<T>) this.slots[key.getSlot()];
+    }
+
+    /**
+     * Gets the current value of the setting referenced by the given key.
+     *
+     * @param key The key of the setting.
+     * @param <T> The type of the setting's value.
+     * @return The current value of the setting.
+     * @see Setting#getValue()
+     */
+    public <T> T getValue(@NotNull SettingKey<T> key) {
+        return get(key).getValue();
+    }
+
+    /**
+     * Sets the value of the setting referenced by the given key.
+     *
+     * @param key   The key of the setting.
+     * @param value The new value of the setting.
+     * @param <T>   The type of the setting's value.
+     * @see Setting#setValue(Object)
+     */
+    public <T> void setValue(@NotNull SettingKey<T> key, T value) {
+        get(key).setValue(value);
+    }
+
+    /**
+     * Finds the key of the setting with the given ID.
+     * This is a string lookup and should be used on cold paths only; hot paths should keep hold of the key.
+     *
+     * @param id The ID of the setting.
+     * @return The key of the setting, or null if no setting with the ID is registered.
+     */
+    public @Nullable SettingKey<?> findKey(String id) {
+        return this.keysById.get(id);
+    }
+
+    /**
+     * Gets the key of the setting with the given ID, checking that it has the expected type.
+     *
+     * @param id   The ID of the setting.
+     * @param type The expected type of the setting's value.
+     * @param <T>  The type of the setting's value.
+     * @return The key of the setting.
+     * @throws IllegalArgumentException If no setting with the ID is registered, or if its type does not match.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> SettingKey<T> getKey(String id, Class<T> type) {
+        SettingKey<?> key = this.keysById.get(id);
+        if (key == null)
+            throw new IllegalArgumentException("No setting with ID '" + id + "' is registered");
+
+        if (key.getType() != type)
+            throw new IllegalArgumentException("Setting '" + id + "' is of type " + key.getType().getName() + ", not " + type.getName());
+
+        return (SettingKey<T>) key;
+    }
+
+    /**
+     * Gets the setting with the given ID.
+     * This is a string lookup and should be used on cold paths only.
+     *
+     * @param id The ID of the setting.
+     * @return The setting, or null if no setting with the ID is registered.
+     */
+    public @Nullable Setting<?> getSetting(String id) {
+        SettingKey<?> key = this.keysById.get(id);
+        return key == null ? null : this.slots[key.getSlot()];
+    }
+
+    /**
+     * Gets the setting in the given slot.
+     *
+     * @param slot The slot of the setting.
+     * @return The setting in the slot.
+     * @throws IndexOutOfBoundsException If the slot is not assigned.
+     */
+    public Setting<?> getSetting(int slot) {
+        if (slot < 0 || slot >= this.size)
+            throw new IndexOutOfBoundsException("Slot " + slot + " is not assigned");
+
+        return this.slots[slot];
+    }
+
+    /**
+     * Checks whether a setting with the given ID is registered.
+     *
+     * @param id The ID of the setting.
+     * @return True if a setting with the ID is registered, false otherwise.
+     */
+    public boolean contains(String id) {
+        return this.keysById.containsKey(id);
+    }
+
+    /**
+     * Gets the number of registered settings.
+     *
+     * @return The number of registered settings.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets all registered settings in slot order.
+     *
+     * @return An immutable list of the registered settings.
+     */
+    public List<Setting<?>> getSettings() {
+        int size = this.size;
+        return List.of(Arrays.copyOf(this.slots, size));
+    }
+
+    /**
+     * Performs the given action for each registered setting in slot order.
+     *
+     * @param action The action to perform.
+     */
+    public void forEach(@NotNull Consumer<Setting<?>> action) {
+        int size = this.size;
+        Setting<?>[] array = this.slots;
+        for (int slot = 0; slot < size; slot++) {
+            action.accept(array[slot]);
+        }
+    }
+
+    /**
+     * Gets the index of the registered settings by tree path.
+     *
+     * @return The tree index.
+     */
+    public SettingsTree getTree() {
+        return this.tree;
+    }
+
+    /**
+     * Gets the search index over the IDs and tree paths of the registered settings.
+     *
+     * @return The search index.
+     */
+    public SettingsSearchIndex getSearchIndex() {
+        return this.searchIndex;
+    }
+
+    /**
+     * Takes a snapshot of the current values of all registered settings.
+     * This is constant time and never blocks, see {@link SettingsSnapshot}, unless primitive settings such as
+     * {@link IntSetting} changed since the last snapshot. Those defer publishing their values so that writing them
+     * allocates nothing, and the first snapshot taken afterwards publishes them, in time proportional to the number
+     * of changed settings plus one pass over a bit per registered setting. If a transaction is being committed
+     * meanwhile, that snapshot waits for the commit to finish.
+     *
+     * @return The snapshot.
+     */
+    public SettingsSnapshot snapshot() {
+        if (this.hasUnpublished) {
+            publishUnpublished();
+        }
+
+        return this.snapshot;
+    }
+
+    /**
+     * Marks the setting in the given slot as changed without publishing its value, so that the next
+     * {@link #snapshot()} publishes it. Unlike {@link #publish(Setting)}, this allocates nothing.
+     *
+     * @param slot The slot of the setting, which must be registered in this registry.
+     */
+    void markUnpublished(int slot) {
+        AtomicLongArray chunk = this.unpublished[slot >>> UNPUBLISHED_CHUNK_SHIFT];
+        int word = (slot >>> 6) & (UNPUBLISHED_CHUNK_WORDS - 1);
+        long bit = 1L << slot;
+        if ((chunk.get(word) & bit) == 0) {
+            chunk.getAndAccumulate(word, bit, (bits, mark) -> bits | mark);
+        }
+
+        if (!this.hasUnpublished) {
+            this.hasUnpublished = true;
+        }
+    }
+
+    /**
+     * Publishes the values of the settings marked by {@link #markUnpublished(int)}.
+     * Each bit is cleared before the value is read, so a value written concurrently is either read here or marks
+     * the setting again. The values are read while no transaction is being committed, so the published snapshot
+     * never holds part of a commit.
+     */
+    private void publishUnpublished() {
+        this.hasUnpublished = false;
+        Setting<?>[] array = this.slots;
+        List<Setting<?>> settings = new ArrayList<>();
+        AtomicLongArray[] chunks = this.unpublished;
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            for (int word = 0; word < UNPUBLISHED_CHUNK_WORDS; word++) {
+                if (chunks[chunk].get(word) == 0)
+                    continue;
+
+                long bits = chunks[chunk].getAndSet(word, 0);
+                while (bits != 0) {
+                    int slot = (chunk << UNPUBLISHED_CHUNK_SHIFT) + word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    // A setting whose slot is not visible yet is still being registered, which publishes it anyway
+                    if (slot < array.length && array[slot] != null) {
+                        settings.add(array[slot]);
+                    }
+                }
+            }
+        }
+
+        if (settings.isEmpty())
+            return;
+
+        while (true) {
+            long stamp = this.commitLock.tryOptimisticRead();
+            if (stamp == 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            SettingsSnapshot current = this.snapshot;
+            SettingsSnapshot next = current;
+            for (Setting<?> setting : settings) {
+                next = next.with(setting.slot(), setting.currentState());
+            }
+
+            // A commit that starts after validating publishes through the same CAS, so either this one fails or
+            // the commit's values are published on top of these
+            if (this.commitLock.validate(stamp) && SNAPSHOT.compareAndSet(this, current, next))
+                return;
+        }
+    }
+
+    /**
+     * Publishes the current value of the given setting to the registry's snapshots.
+     * The value is read after the latest snapshot, so when two threads publish the same setting concurrently,
+     * whichever succeeds last has observed the latest value.
+     *
+     * @param setting The setting, which must be registered in this registry.
+     */
+    void publish(Setting<?> setting) {
+        while (true) {
+            SettingsSnapshot current = this.snapshot;
+            SettingsSnapshot next = current.with(setting.slot(), setting.currentState());
+            if (SNAPSHOT.compareAndSet(this, current, next))
+                return;
+        }
+    }
+
+    /**
+     * Publishes the current values of the given settings to the registry's snapshots at once,
+     * so that no snapshot holds some of the values but not the others.
+     *
+     * @param settings The settings, which must be registered in this registry.
+     */
+    void publish(List<? extends Setting<?>> settings) {
+        if (settings.isEmpty())
+            return;
+
+        while (true) {
+            SettingsSnapshot current = this.snapshot;
+            SettingsSnapshot next = current;
+            for (Setting<?> setting : settings) {
+                next = next.with(setting.slot(), setting.currentState());
+            }
+
+            if (SNAPSHOT.compareAndSet(this, current, next))
+                return;
+        }
+    }
+
+    /**
+     * Begins a transaction that applies changes to several settings of this registry at once.
+     *
+     * @return A new transaction.
+     */
+    public SettingsTransaction beginTransaction() {
+        return new SettingsTransaction(this);
+    }
+
+    /**
+     * Runs the given reader so that it observes either all or none of the values of any committed transaction.
+     * Reading is optimistic and does not block commits; if a commit happens while reading, the reader is run again
+     * while commits are held off. The reader should therefore be free of side effects.
+     *
+     * @param reader The function reading the settings.
+     * @param <R>    The type of the result.
+     * @return The result of the reader.
+     */
+    public <R> R readAtomically(@NotNull Supplier<R> reader) {
+        long stamp = this.commitLock.tryOptimisticRead();
+        if (stamp != 0) {
+            R result = reader.get();
+            if (this.commitLock.validate(stamp))
+                return result;
+        }
+
+        stamp = this.commitLock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            this.commitLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Runs the given writer while atomic reads are held off.
+     *
+     * @param writer The function writing the settings.
+     */
+    void writeAtomically(Runnable writer) {
+        long stamp = this.commitLock.writeLock();
+        try {
+            writer.run();
+        } finally {
+            this.commitLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Adds a listener that is notified once for every batch of changes applied together, such as a committed transaction.
+     *
+     * @param listener The listener to add.
+     */
+    public void addBatchListener(@NotNull Consumer<SettingsChangeEvent> listener) {
+        if (listener == null)
+            throw new IllegalArgumentException("Listener cannot be null");
+
+        this.batchListeners.add(listener);
+    }
+
+    /**
+     * Removes a batch listener from the registry.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeBatchListener(@NotNull Consumer<SettingsChangeEvent> listener) {
+        if (listener == null)
+            throw new IllegalArgumentException("Listener cannot be null");
+
+        this.batchListeners.remove(listener);
+    }
+
+    void fireBatchListeners(SettingsChangeEvent event) {
+        for (Consumer<SettingsChangeEvent> listener : this.batchListeners) {
+            listener.accept(event);
+        }
+    }
+}
@@ -0,0 +1,505 @@
+package io.github.railroad.settings;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+/**
+ * A search index over the IDs and tree paths of the settings of a {@link SettingsRegistry}, for filtering settings
+ * as the user types.
+ * <p>
+ * IDs and tree paths are split into lowercase tokens at punctuation and camel case boundaries, and every token of
+ * three or more characters is indexed by its trigrams. Trigrams spanning a camel case boundary are indexed
+ * separately, as they only serve to rule out settings that cannot contain a term. A query is split the same way and every term must match each
+ * result. Terms are scored, best first, as an exact token, a token prefix, or a substring of the ID or tree path. To
+ * tolerate typos, a term also matches tokens within a small edit distance, counting transpositions, and settings
+ * sharing most of its trigrams.
+ * <p>
+ * Tokens within the edit distance are found through an index of every distinct token with up to two characters
+ * deleted: two strings within distance {@code k} of each other always become equal after deleting at most {@code k}
+ * characters from each, so only the tokens sharing such a variant with a term are compared with it. Likewise, only
+ * the settings holding every trigram of a term are checked for containing it. A term of three or more characters
+ * therefore costs time proportional to the postings of its trigrams and variants rather than to the size of the
+ * registry. Terms are matched longest first, and shorter terms are only checked against the settings
+ * matched so far; a query made only of terms shorter than three characters checks every setting.
+ * <p>
+ * The index is maintained by the registry as settings are registered and is safe to use from any thread.
+ *
+ * @see SettingsRegistry#getSearchIndex()
+ */
+public final class SettingsSearchIndex {
+    private static final int EXACT_SCORE = 100;
+    private static final int PREFIX_SCORE = 80;
+    private static final int SUBSTRING_SCORE = 60;
+    private static final int FUZZY_SCORE = 40;
+    private static final double FUZZY_THRESHOLD = 0.5;
+    private static final int MAX_DISTANCE = 2;
+
+    private final List<Document> documents = new ArrayList<>();
+    private final Map<Long, Postings> trigrams = new HashMap<>();
+
+    /**
+     * The documents for each trigram that spans a camel case boundary in their text without occurring in any of their
+     * tokens. These only tell which documents can contain a term, and do not count towards fuzzy matches.
+     */
+    private final Map<Long, Postings> spanningTrigrams = new HashMap<>();
+    private final Map<String, Token> tokens = new HashMap<>();
+    private final List<Token> tokensById = new ArrayList<>();
+
+    /**
+     * The distinct tokens, by ID, for each hash of a token with up to {@link #MAX_DISTANCE} characters deleted.
+     * Hashes that collide only add candidates, which are compared with the term anyway.
+     */
+    private final Map<Long, Postings> deletions = new HashMap<>();
+
+    /**
+     * Scratch space reused across searches, indexed by document: the trigram hits, spanning trigram hits and score
+     * of the current term, and the documents whose entries are set, so that they can be reset without clearing the
+     * whole arrays.
+     */
+    private int[] hits = new int[0];
+    private int[] spanningHits = new int[0];
+    private int[] termScores = new int[0];
+    private int[] touched = new int[0];
+    private int touchedCount;
+
+    /**
+     * Scratch space reused across searches, indexed by token ID and by document: the term for which a token was last
+     * considered as a typo candidate, so that each candidate is compared once per term, and for which a document was
+     * last touched.
+     */
+    private int[] tokenMarks = new int[0];
+    private int[] documentMarks = new int[0];
+    private int mark;
+
+    /**
+     * The rows reused by {@link #editDistance(String, String, int)}.
+     */
+    private final int[][] distanceRows = {new int[0], new int[0], new int[0]};
+
+    SettingsSearchIndex() {
+    }
+
+    /**
+     * Searches the index.
+     *
+     * @param query The query, whose terms are separated by whitespace or punctuation.
+     * @param limit The maximum number of results.
+     * @return The matching settings, best match first and in registration order among equal matches,
+     * or an empty list if the query has no terms.
+     */
+    public synchronized List<Result> search(@NotNull String query, int limit) {
+        if (query == null)
+            throw new IllegalArgumentException("Query cannot be null");
+
+        if (limit <= 0)
+            throw new IllegalArgumentException("Limit must be positive");
+
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty())
+            return List.of();
+
+        // Longer terms select their candidates through the postings, shorter ones then only filter them
+        terms.sort(Comparator.comparingInt(String::length).reversed());
+        ensureScratchCapacity();
+
+        // The matches so far, as packed longs of the negated total score and the document, so that sorting them
+        // orders them best score first and in registration order among equal scores
+        long[] matches = null;
+        int matchCount = 0;
+        for (String term : terms) {
+            boolean indexed = term.length() >= 3;
+            if (indexed) {
+                scoreIndexed(term);
+            }
+
+            if (matches == null) {
+                matches = new long[indexed ? this.touchedCount : this.documents.size()];
+                int candidates = matches.length;
+                for (int index = 0; index < candidates; index++) {
+                    int document = indexed ? this.touched[index] : index;
+                    int score = indexed ? this.termScores[document] : scoreDirect(this.documents.get(document), term);
+                    if (score > 0) {
+                        matches[matchCount++] = pack(score, document);
+                    }
+                }
+            } else {
+                int kept = 0;
+                for (int index = 0; index < matchCount; index++) {
+                    int document = (int) matches[index];
+                    int score = indexed ? this.termScores[document] : scoreDirect(this.documents.get(document), term);
+                    if (score > 0) {
+                        matches[kept++] = pack(unpackScore(matches[index]) + score, document);
+                    }
+                }
+
+                matchCount = kept;
+            }
+
+            if (indexed) {
+                resetScratch();
+            }
+
+            if (matchCount == 0)
+                return List.of();
+        }
+
+        Arrays.sort(matches, 0, matchCount);
+        var results = new Result[Math.min(limit, matchCount)];
+        for (int index = 0; index < results.length; index++) {
+            int document = (int) matches[index];
+            results[index] = new Result(this.documents.get(document).setting(), unpackScore(matches[index]));
+        }
+
+        return List.of(results);
+    }
+
+    /**
+     * Adds a setting to the index.
+     *
+     * @param setting The setting to add.
+     */
+    synchronized void add(Setting<?> setting) {
+        int document = this.documents.size();
+        String text = (setting.getId() + ' ' + setting.getTreePath()).toLowerCase(Locale.ROOT);
+        List<String> tokens = tokenize(setting.getId() + ' ' + setting.getTreePath());
+        this.documents.add(new Document(setting, text, tokens.toArray(String[]::new)));
+
+        Set<Long> tokenTrigrams = new HashSet<>();
+        for (String name : tokens) {
+            Token token = this.tokens.get(name);
+            if (token == null) {
+                token = new Token(this.tokensById.size(), name, new Postings());
+                this.tokens.put(name, token);
+                this.tokensById.add(token);
+                indexDeletions(token);
+            }
+
+            token.documents().add(document);
+            for (int index = 0; index + 3 <= name.length(); index++) {
+                long trigram = trigram(name, index);
+                this.trigrams.computeIfAbsent(trigram, key -> new Postings()).add(document);
+                tokenTrigrams.add(trigram);
+            }
+        }
+
+        for (String run : text.split("[^\\p{L}\\p{Nd}]+")) {
+            for (int index = 0; index + 3 <= run.length(); index++) {
+                long trigram = trigram(run, index);
+                if (!tokenTrigrams.contains(trigram)) {
+                    this.spanningTrigrams.computeIfAbsent(trigram, key -> new Postings()).add(document);
+                }
+            }
+        }
+    }
+
+    /**
+     * Scores the documents sharing a trigram or a close token with a term of three or more characters,
+     * leaving the scores in {@link #termScores} and the scored documents in {@link #touched}.
+     */
+    private void scoreIndexed(String term) {
+        this.mark++;
+        Set<Long> distinct = new HashSet<>();
+        for (int index = 0; index + 3 <= term.length(); index++) {
+            distinct.add(trigram(term, index));
+        }
+
+        for (Long trigram : distinct) {
+            Postings postings = this.trigrams.get(trigram);
+            if (postings == null)
+                continue;
+
+            for (int index = 0; index < postings.size; index++) {
+                int document = postings.documents[index];
+                touch(document);
+                this.hits[document]++;
+            }
+        }
+
+        for (Long trigram : distinct) {
+            Postings postings = this.spanningTrigrams.get(trigram);
+            if (postings == null)
+                continue;
+
+            for (int index = 0; index < postings.size; index++) {
+                int document = postings.documents[index];
+                touch(document);
+                this.spanningHits[document]++;
+            }
+        }
+
+        // A document can only contain the term if it holds all of its trigrams, the others are only checked for typos
+        for (int index = 0; index < this.touchedCount; index++) {
+            int document = this.touched[index];
+            int direct = this.hits[document] + this.spanningHits[document] == distinct.size()
+                    ? scoreDirect(this.documents.get(document), term) : 0;
+            double share = (double) this.hits[document] / distinct.size();
+            this.termScores[document] = direct > 0 ? direct
+                    : share >= FUZZY_THRESHOLD ? (int) Math.ceil(FUZZY_SCORE * share) : 0;
+        }
+
+        int maxDistance = term.length() <= 4 ? 1 : 2;
+        forEachDeletion(term, maxDistance, hash -> {
+            Postings candidates = this.deletions.get(hash);
+            if (candidates == null)
+                return;
+
+            for (int index = 0; index < candidates.size; index++) {
+                int id = candidates.documents[index];
+                if (this.tokenMarks[id] == this.mark)
+                    continue;
+
+                this.tokenMarks[id] = this.mark;
+                Token token = this.tokensById.get(id);
+                int distance = editDistance(term, token.text(), maxDistance);
+                if (distance > maxDistance)
+                    continue;
+
+                int score = FUZZY_SCORE - 5 * distance;
+                Postings postings = token.documents();
+                for (int posting = 0; posting < postings.size; posting++) {
+                    int document = postings.documents[posting];
+                    touch(document);
+                    this.termScores[document] = Math.max(this.termScores[document], score);
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds a document to the documents scored for the current term, unless it has been added already.
+     */
+    private void touch(int document) {
+        if (this.documentMarks[document] != this.mark) {
+            this.documentMarks[document] = this.mark;
+            this.touched[this.touchedCount++] = document;
+        }
+    }
+
+    private void resetScratch() {
+        for (int index = 0; index < this.touchedCount; index++) {
+            int document = this.touched[index];
+            this.hits[document] = 0;
+            this.spanningHits[document] = 0;
+            this.termScores[document] = 0;
+        }
+
+        this.touchedCount = 0;
+    }
+
+    private void ensureScratchCapacity() {
+        if (this.hits.length < this.documents.size()) {
+            int capacity = Math.max(this.documents.size(), this.hits.length * 2);
+            this.hits = new int[capacity];
+            this.spanningHits = new int[capacity];
+            this.documentMarks = Arrays.copyOf(this.documentMarks, capacity);
+            this.termScores = new int[capacity];
+            this.touched = new int[capacity];
+        }
+
+        if (this.tokenMarks.length < this.tokensById.size()) {
+            this.tokenMarks = Arrays.copyOf(this.tokenMarks, Math.max(this.tokensById.size(), this.tokenMarks.length * 2));
+        }
+    }
+
+    private void indexDeletions(Token token) {
+        forEachDeletion(token.text(), MAX_DISTANCE,
+                hash -> this.deletions.computeIfAbsent(hash, key -> new Postings()).add(token.id()));
+    }
+
+    /**
+     * Passes the hash of every variant of the text with up to the given number of characters deleted, including the
+     * text itself, to the action. Variants reachable in several ways are passed more than once.
+     */
+    private static void forEachDeletion(String text, int maxDeletions, LongConsumer action) {
+        action.accept(hash(text, -1, -1));
+        if (maxDeletions < 1)
+            return;
+
+        for (int first = 0; first < text.length(); first++) {
+            action.accept(hash(text, first, -1));
+            if (maxDeletions < 2)
+                continue;
+
+            for (int second = first + 1; second < text.length(); second++) {
+                action.accept(hash(text, first, second));
+            }
+        }
+    }
+
+    /**
+     * Hashes the text without the characters at the given indices, -1 meaning none, using 64-bit FNV-1a.
+     */
+    private static long hash(String text, int skipped, int alsoSkipped) {
+        long hash = 0xcbf29ce484222325L;
+        for (int index = 0; index < text.length(); index++) {
+            if (index == skipped || index == alsoSkipped)
+                continue;
+
+            hash = (hash ^ text.charAt(index)) * 0x100000001b3L;
+        }
+
+        return hash;
+    }
+
+    private static long pack(int score, int document) {
+        return (long) (Integer.MAX_VALUE - score) << 32 | document;
+    }
+
+    private static int unpackScore(long match) {
+        return Integer.MAX_VALUE - (int) (match >>> 32);
+    }
+
+    /**
+     * Computes the optimal string alignment distance between two strings, which counts insertions, deletions,
+     * substitutions and transpositions of adjacent characters. Only the cells within the maximum distance of the
+     * diagonal are computed, as any alignment leaving that band costs more than the maximum, and the rows are reused
+     * across calls.
+     *
+     * @return The distance, or any value above the maximum once the distance is known to exceed it.
+     */
+    private int editDistance(String first, String second, int maxDistance) {
+        if (Math.abs(first.length() - second.length()) > maxDistance)
+            return maxDistance + 1;
+
+        if (this.distanceRows[0].length <= second.length()) {
+            for (int row = 0; row < this.distanceRows.length; row++) {
+                this.distanceRows[row] = new int[second.length() + 1];
+            }
+        }
+
+        int outside = maxDistance + 1;
+        int[] beforePrevious = this.distanceRows[0];
+        int[] previous = this.distanceRows[1];
+        int[] current = this.distanceRows[2];
+        for (int column = 0; column <= second.length(); column++) {
+            previous[column] = Math.min(column, outside);
+        }
+
+        for (int row = 1; row <= first.length(); row++) {
+            int from = Math.max(1, row - maxDistance);
+            int to = Math.min(second.length(), row + maxDistance);
+            current[from - 1] = from == 1 ? Math.min(row, outside) : outside;
+            int rowMinimum = current[from - 1];
+            for (int column = from; column <= to; column++) {
+                int cost = first.charAt(row - 1) == second.charAt(column - 1) ? 0 : 1;
+                int distance = Math.min(Math.min(previous[column] + 1, current[column - 1] + 1), previous[column - 1] + cost);
+                if (row > 1 && column > 1 && first.charAt(row - 1) == second.charAt(column - 2)
+                        && first.charAt(row - 2) == second.charAt(column - 1)) {
+                    distance = Math.min(distance, beforePrevious[column - 2] + 1);
+                }
+
+                current[column] = Math.min(distance, outside);
+                rowMinimum = Math.min(rowMinimum, current[column]);
+            }
+
+            if (to < second.length()) {
+                current[to + 1] = outside;
+            }
+
+            if (rowMinimum > maxDistance)
+                return outside;
+
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+
+        return previous[second.length()];
+    }
+
+    private static int scoreDirect(Document document, String term) {
+        int best = 0;
+        for (String token : document.tokens()) {
+            if (token.equals(term))
+                return EXACT_SCORE;
+
+            if (token.startsWith(term)) {
+                best = PREFIX_SCORE;
+            }
+        }
+
+        if (best == 0 && document.text().contains(term)) {
+            best = SUBSTRING_SCORE;
+        }
+
+        return best;
+    }
+
+    /**
+     * Splits text into lowercase tokens at characters that are not letters or digits, and between a lowercase
+     * letter or digit and a following uppercase letter.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int index = 0; index <= text.length(); index++) {
+            char character = index < text.length() ? text.charAt(index) : ' ';
+            boolean partOfToken = Character.isLetterOrDigit(character);
+            boolean boundary = partOfToken && start >= 0 && Character.isUpperCase(character)
+                    && !Character.isUpperCase(text.charAt(index - 1));
+            if (start >= 0 && (!partOfToken || boundary)) {
+                tokens.add(text.substring(start, index).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+
+            if (partOfToken && start < 0) {
+                start = index;
+            }
+        }
+
+        return tokens;
+    }
+
+    private static long trigram(String token, int index) {
+        return (long) token.charAt(index) << 32 | (long) token.charAt(index + 1) << 16 | token.charAt(index + 2);
+    }
+
+    /**
+     * A setting matching a query.
+     *
+     * @param setting The matching setting.
+     * @param score   How well the setting matches, higher is better.
+     */
+    public record Result(Setting<?> setting, int score) {
+    }
+
+    private record Document(Setting<?> setting, String text, String[] tokens) {
+    }
+
+    /**
+     * A distinct token and the documents containing it.
+     */
+    private record Token(int id, String text, Postings documents) {
+    }
+
+    /**
+     * The documents containing a trigram or token, or the tokens sharing a deletion variant,
+     * in increasing order without duplicates.
+     */
+    private static final class Postings {
+        private int[] documents = new int[4];
+        private int size;
+
+        private void add(int document) {
+            if (this.size > 0 && this.documents[this.size - 1] == document)
+                return;
+
+            if (this.size == this.documents.length) {
+                this.documents = Arrays.copyOf(this.documents, this.size * 2);
+            }
+
+            this.documents[this.size++] = document;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.railroad.settings;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable view of the values of all settings of a {@link SettingsRegistry} at one point in time.
+ * <p>
+ * Taking a snapshot is constant time and does not copy any values; the registry keeps its values in a persistent
+ * structure that shares everything unchanged between versions. Reading a snapshot never blocks writers and is never
+ * affected by them, and a snapshot never observes part of a {@link SettingsTransaction transaction}, so
+ * long-running tasks can read a consistent configuration for as long as they need it.
+ * <p>
+ * Values loaded lazily are decoded when first read, from either the snapshot or the setting, and only once.
+ *
+ * @see SettingsRegistry#snapshot()
+ */
+public final class SettingsSnapshot {
+    private final SettingsRegistry registry;
+    private final SlotTrie values;
+
+    /**
+     * The version of the registry's values this snapshot holds, increasing with every published change.
+     */
+    @Getter
+    private final long version;
+
+    /**
+     * The number of settings the snapshot holds a value for.
+     */
+    @Getter
+    private final int size;
+
+    SettingsSnapshot(SettingsRegistry registry, SlotTrie values, long version, int size) {
+        this.registry = registry;
+        this.values = values;
+        this.version = version;
+        this.size = size;
+    }
+
+    /**
+     * Gets the value of the setting referenced by the given key at the time the snapshot was taken.
+     *
+     * @param key The key of the setting.
+     * @param <T> The type of the setting's value.
+     * @return The value of the setting.
+     * @throws IllegalArgumentException If the key was issued by a different registry, or if the setting was
+     *                                  registered after the snapshot was taken.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(@NotNull SettingKey<T> key) {
+        if (key.registry != this.registry)
+            throw new IllegalArgumentException("Key '" + key.getId() + "' does not belong to this registry");
+
+        if (key.getSlot() >= this.size)
+            throw new IllegalArgumentException("Setting '" + key.getId() + "' was registered after the snapshot was taken");
+
+        return (T) valueAt(key.getSlot());
+    }
+
+    /**
+     * Gets the value of the setting with the given ID at the time the snapshot was taken.
+     * This is a string lookup and should be used on cold paths only.
+     *
+     * @param id The ID of the setting.
+     * @return The value of the setting, or null if the snapshot holds no setting with the ID.
+     */
+    public @Nullable Object get(String id) {
+        SettingKey<?> key = this.registry.findKey(id);
+        return key == null || key.getSlot() >= this.size ? null : valueAt(key.getSlot());
+    }
+
+    private @Nullable Object valueAt(int slot) {
+        Object value = this.values.get(slot);
+        if (!(value instanceof LazyValue<?> lazy))
+            return value;
+
+        Object loaded = lazy.get();
+        if (loaded == null) {
+            Setting<?> setting = this.registry.getSetting(slot);
+            return setting.isCanBeNull() ? null : setting.getDefaultValue();
+        }
+
+        return loaded;
+    }
+
+    SettingsSnapshot with(int slot, @Nullable Object value) {
+        return new SettingsSnapshot(this.registry, this.values.with(slot, value), this.version + 1,
+                Math.max(this.size, slot + 1));
+    }
+}
@@ -0,0 +1,175 @@
+package io.github.railroad.settings;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Stages new values for a set of settings and applies them all at once.
+ * <p>
+ * On {@link #commit()}, the staged values are validated first and nothing is applied if any of them is invalid.
+ * The values are then written together, so readers using {@link SettingsRegistry#readAtomically(java.util.function.Supplier)}
+ * observe either all old or all new values. Only after every value has been written are the listeners of the changed
+ * settings notified, followed by a single {@link SettingsChangeEvent} for the registry's batch listeners.
+ * The new values are also published to the registry's {@link SettingsRegistry#snapshot() snapshots} at once.
+ * Values that are equivalent to the current ones are not counted as changes.
+ * <p>
+ * Transactions are not thread-safe and can only be committed once.
+ *
+ * @see SettingsRegistry#beginTransaction()
+ */
+public class SettingsTransaction {
+    private final SettingsRegistry registry;
+    private final Map<SettingKey<?>, Object> staged = new LinkedHashMap<>();
+    private final List<Requirement<?>> requirements = new ArrayList<>();
+    private boolean finished;
+
+    SettingsTransaction(SettingsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Stages a new value for the setting referenced by the given key, replacing any value staged before.
+     *
+     * @param key   The key of the setting.
+     * @param value The new value.
+     * @param <T>   The type of the setting's value.
+     * @return This transaction for method chaining.
+     */
+    public <T> SettingsTransaction set(@NotNull SettingKey<T> key, T value) {
+        checkOpen();
+        if (key.registry != this.registry)
+            throw new IllegalArgumentException("Key '" + key.getId() + "' does not belong to this registry");
+
+        this.staged.put(key, value);
+        return this;
+    }
+
+    /**
+     * Adds a requirement that the staged value of a setting must meet for the transaction to commit.
+     * Requirements are only checked if a value is staged for the setting.
+     *
+     * @param key       The key of the setting.
+     * @param condition The condition the staged value must meet.
+     * @param message   The message describing the failure.
+     * @param <T>       The type of the setting's value.
+     * @return This transaction for method chaining.
+     */
+    public <T> SettingsTransaction require(@NotNull SettingKey<T> key, @NotNull Predicate<T> condition, String message) {
+        checkOpen();
+        this.requirements.add(new Requirement<>(key, condition, message));
+        return this;
+    }
+
+    /**
+     * Checks whether a value is staged for the setting referenced by the given key.
+     *
+     * @param key The key of the setting.
+     * @return True if a value is staged, false otherwise.
+     */
+    public boolean isStaged(@NotNull SettingKey<?> key) {
+        return this.staged.containsKey(key);
+    }
+
+    /**
+     * Validates the staged values without applying them.
+     * A value is invalid if it is null for a setting that cannot be null, if it is not of the setting's type,
+     * or if it does not meet a {@link #require requirement}. Settings of a primitive type accept its box.
+     *
+     * @return The validation failures, empty if all staged values are valid.
+     */
+    public List<String> validate() {
+        List<String> failures = new ArrayList<>();
+        this.staged.forEach((key, value) -> {
+            Setting<?> setting = this.registry.get(key);
+            if (value == null && !setting.isCanBeNull()) {
+                failures.add("Setting '" + key.getId() + "' cannot be null");
+            } else if (value != null && !wrap(setting.getType()).isInstance(value)) {
+                failures.add("Setting '" + key.getId() + "' does not accept values of type " + value.getClass().getName());
+            }
+        });
+
+        for (Requirement<?> requirement : this.requirements) {
+            if (this.staged.containsKey(requirement.key()) && !requirement.test(this.staged.get(requirement.key()))) {
+                failures.add("Setting '" + requirement.key().getId() + "': " + requirement.message());
+            }
+        }
+
+        return failures;
+    }
+
+    /**
+     * Validates and applies the staged values, then notifies listeners once every value has been applied.
+     *
+     * @return The event describing the applied changes, which is empty if no value actually changed.
+     * @throws IllegalStateException If any staged value is invalid, in which case nothing is applied,
+     *                               or if the transaction has already finished.
+     */
+    public SettingsChangeEvent commit() {
+        checkOpen();
+        List<String> failures = validate();
+        if (!failures.isEmpty())
+            throw new IllegalStateException("Invalid settings transaction: " + String.join("; ", failures));
+
+        this.finished = true;
+        List<SettingsChangeEvent.Change<?>> changes = new ArrayList<>();
+        this.registry.writeAtomically(() -> {
+            this.staged.forEach((key, value) -> apply(key, value, changes));
+            this.registry.publish(changes.stream().<Setting<?>>map(SettingsChangeEvent.Change::setting).toList());
+        });
+
+        var event = new SettingsChangeEvent(changes);
+        for (SettingsChangeEvent.Change<?> change : changes) {
+            change.setting().notifyListeners();
+        }
+
+        if (!changes.isEmpty()) {
+            this.registry.fireBatchListeners(event);
+        }
+
+        return event;
+    }
+
+    /**
+     * Discards all staged values and requirements and finishes the transaction.
+     */
+    public void rollback() {
+        checkOpen();
+        this.finished = true;
+        this.staged.clear();
+        this.requirements.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void apply(SettingKey<T> key, Object staged, List<SettingsChangeEvent.Change<?>> changes) {
+        Setting<T> setting = this.registry.get(key);
+        T value = (T) staged;
+        T previous = setting.getValue();
+        if (setting.isEquivalent(previous, value))
+            return;
+
+        setting.replaceValue(value);
+        changes.add(new SettingsChangeEvent.Change<>(setting, previous, value));
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+    }
+
+    private void checkOpen() {
+        if (this.finished)
+            throw new IllegalStateException("Transaction has already been committed or rolled back");
+    }
+
+    private record Requirement<T>(SettingKey<T> key, Predicate<T> condition, String message) {
+        @SuppressWarnings("unchecked")
+        boolean test(Object value) {
+            return condition.test((T) value);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package io.github.railroad.settings;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * An index of the settings of a {@link SettingsRegistry} by their tree path.
+ * <p>
+ * Tree paths are split into segments at {@value #SEPARATOR}, so a setting with the tree path {@code editor.font} is
+ * held by the node {@code font} below the node {@code editor}. Every node knows how many settings its subtree holds,
+ * so counting the settings under a prefix costs one lookup per segment, and enumerating a subtree only visits that
+ * subtree. Segment names are interned, so a segment such as {@code font} that appears under many parents is stored
+ * once.
+ * <p>
+ * The index is maintained by the registry as settings are registered. It can be read from any thread; changes made
+ * while reading are either fully visible or not at all for each node.
+ * <p>
+ * Listeners can be attached to any node with {@link #addListener(String, Consumer)} to be notified of changes of
+ * every setting in its subtree, including settings registered later. A change is dispatched by walking from the
+ * setting's node up to the root, so a single listener on {@code appearance} replaces one listener per setting below
+ * it, and settings without such listeners above them pay only for the walk.
+ *
+ * @see SettingsRegistry#getTree()
+ */
+public final class SettingsTree {
+    /**
+     * The character separating the segments of a tree path.
+     */
+    public static final char SEPARATOR = '.';
+
+    private final Node root = new Node(null, "");
+    private final Map<String, String> segments = new HashMap<>();
+
+    SettingsTree() {
+    }
+
+    /**
+     * Gets the root node, which holds the settings with an empty tree path and has every other node below it.
+     *
+     * @return The root node.
+     */
+    public Node getRoot() {
+        return this.root;
+    }
+
+    /**
+     * Finds the node for the given tree path.
+     *
+     * @param path The tree path, where an empty path is the root.
+     * @return The node, or null if no setting is registered at or below the path and no listener was added for it.
+     */
+    public @Nullable Node find(@NotNull String path) {
+        Node node = this.root;
+        int start = 0;
+        while (node != null && start < path.length()) {
+            int end = segmentEnd(path, start);
+            if (end > start) {
+                node = node.children.get(path.substring(start, end));
+            }
+
+            start = end + 1;
+        }
+
+        return node;
+    }
+
+    /**
+     * Counts the settings at or below the given tree path.
+     *
+     * @param path The tree path.
+     * @return The number of settings in the subtree, zero if there are none.
+     */
+    public int count(@NotNull String path) {
+        Node node = find(path);
+        return node == null ? 0 : node.subtreeSize;
+    }
+
+    /**
+     * Gets the settings at or below the given tree path, in depth-first order.
+     *
+     * @param path The tree path.
+     * @return An immutable list of the settings in the subtree, empty if there are none.
+     */
+    public List<Setting<?>> getSubtree(@NotNull String path) {
+        Node node = find(path);
+        if (node == null)
+            return List.of();
+
+        List<Setting<?>> settings = new ArrayList<>(node.subtreeSize);
+        node.forEachInSubtree(settings::add);
+        return Collections.unmodifiableList(settings);
+    }
+
+    /**
+     * Adds a listener that is notified whenever the value of a setting at or below the given tree path changes,
+     * including settings registered after the listener was added. The listener receives the changed setting.
+     *
+     * @param path     The tree path, where an empty path is the root.
+     * @param listener The listener to add.
+     * @return A subscription that removes the listener when closed.
+     */
+    public Subscription addListener(@NotNull String path, @NotNull Consumer<Setting<?>> listener) {
+        if (path == null || listener == null)
+            throw new IllegalArgumentException("Path and listener cannot be null");
+
+        Node node;
+        synchronized (this) {
+            node = createPath(path);
+        }
+
+        ListenerList<Consumer<Setting<?>>> list = ListenerList.getOrCreate(Node.LISTENERS, node);
+        ListenerList.Entry<Consumer<Setting<?>>> entry = list.add(listener);
+        return () -> list.remove(entry);
+    }
+
+    /**
+     * Adds a setting to the node for its tree path, creating missing nodes.
+     *
+     * @param setting The setting to add.
+     * @return The node the setting was added to.
+     */
+    synchronized Node add(Setting<?> setting) {
+        Node node = createPath(setting.getTreePath());
+        node.addSetting(setting);
+        for (Node ancestor = node; ancestor != null; ancestor = ancestor.parent) {
+            ancestor.subtreeSize++;
+        }
+
+        return node;
+    }
+
+    private Node createPath(String path) {
+        Node node = this.root;
+        int start = 0;
+        while (start < path.length()) {
+            int end = segmentEnd(path, start);
+            if (end > start) {
+                node = node.child(intern(path.substring(start, end)));
+            }
+
+            start = end + 1;
+        }
+
+        return node;
+    }
+
+    private String intern(String segment) {
+        return this.segments.computeIfAbsent(segment, key -> key);
+    }
+
+    private static int segmentEnd(String path, int start) {
+        int end = path.indexOf(SEPARATOR, start);
+        return end < 0 ? path.length() : end;
+    }
+
+    /**
+     * A node of the tree, standing for one tree path.
+     */
+    public static final class Node {
+        private static final Setting<?>[] NO_SETTINGS = new Setting<?>[0];
+        private static final VarHandle LISTENERS;
+
+        static {
+            try {
+                LISTENERS = MethodHandles.lookup().findVarHandle(Node.class, "listeners", ListenerList.class);
+            } catch (ReflectiveOperationException exception) {
+                throw new ExceptionInInitializerError(exception);
+            }
+        }
+
+        private final @Nullable Node parent;
+        private final String segment;
+        private volatile Map<String, Node> children = Map.of();
+        private volatile Setting<?>[] settings = NO_SETTINGS;
+        private volatile int subtreeSize;
+        private volatile ListenerList<Consumer<Setting<?>>> listeners = ListenerList.empty();
+
+        private Node(@Nullable Node parent, String segment) {
+            this.parent = parent;
+            this.segment = segment;
+        }
+
+        /**
+         * Gets the parent of the node.
+         *
+         * @return The parent, or null for the root.
+         */
+        public @Nullable Node getParent() {
+            return this.parent;
+        }
+
+        /**
+         * Gets the last segment of the node's tree path.
+         *
+         * @return The segment, empty for the root.
+         */
+        public String getSegment() {
+            return this.segment;
+        }
+
+        /**
+         * Gets the full tree path of the node.
+         *
+         * @return The tree path, empty for the root.
+         */
+        public String getPath() {
+            if (this.parent == null)
+                return "";
+
+            String parentPath = this.parent.getPath();
+            return parentPath.isEmpty() ? this.segment : parentPath + SEPARATOR + this.segment;
+        }
+
+        /**
+         * Gets the child nodes, in the order they were created.
+         *
+         * @return An unmodifiable view of the children.
+         */
+        public Collection<Node> getChildren() {
+            return this.children.values();
+        }
+
+        /**
+         * Gets the child node with the given segment.
+         *
+         * @param segment The segment of the child.
+         * @return The child, or null if there is none.
+         */
+        public @Nullable Node getChild(String segment) {
+            return this.children.get(segment);
+        }
+
+        /**
+         * Gets the settings whose tree path is exactly this node's, in registration order.
+         *
+         * @return An immutable list of the settings.
+         */
+        public List<Setting<?>> getSettings() {
+            return List.of(this.settings);
+        }
+
+        /**
+         * Gets the number of settings at or below this node.
+         *
+         * @return The number of settings in the subtree.
+         */
+        public int getSubtreeSize() {
+            return this.subtreeSize;
+        }
+
+        /**
+         * Performs the given action for each setting at or below this node, in depth-first order.
+         *
+         * @param action The action to perform.
+         */
+        public void forEachInSubtree(@NotNull Consumer<Setting<?>> action) {
+            for (Setting<?> setting : this.settings) {
+                action.accept(setting);
+            }
+
+            for (Node child : this.children.values()) {
+                child.forEachInSubtree(action);
+            }
+        }
+
+        /**
+         * Checks whether this node or any of its ancestors has subtree listeners.
+         */
+        boolean hasListenersOnPath() {
+            for (Node node = this; node != null; node = node.parent) {
+                if (!node.listeners.isEmpty())
+                    return true;
+            }
+
+            return false;
+        }
+
+        /**
+         * Notifies the subtree listeners of this node and all of its ancestors that the given setting changed.
+         */
+        void notifySubtreeListeners(Setting<?> setting) {
+            for (Node node = this; node != null; node = node.parent) {
+                for (ListenerList.Entry<Consumer<Setting<?>>> entry : node.listeners.entries()) {
+                    if (entry == null)
+                        break;
+
+                    Consumer<Setting<?>> listener = entry.get();
+                    if (listener != null) {
+                        listener.accept(setting);
+                    }
+                }
+            }
+        }
+
+        private Node child(String segment) {
+            Node child = this.children.get(segment);
+            if (child != null)
+                return child;
+
+            child = new Node(this, segment);
+            Map<String, Node> children = new LinkedHashMap<>(this.children);
+            children.put(segment, child);
+            this.children = Collections.unmodifiableMap(children);
+            return child;
+        }
+
+        private void addSetting(Setting<?> setting) {
+            Setting<?>[] settings = Arrays.copyOf(this.settings, this.settings.length + 1);
+            settings[settings.length - 1] = setting;
+            this.settings = settings;
+        }
+    }
+}
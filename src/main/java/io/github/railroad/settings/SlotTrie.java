@@ -0,0 +1,75 @@
+package io.github.railroad.settings;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable array of values indexed by slot, stored as a 32-way trie.
+ * Updating a slot copies only the path from the root to that slot and shares every other node with the
+ * previous version, so versions are cheap to create and can be kept around for as long as needed.
+ */
+final class SlotTrie {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    /**
+     * The trie with no values.
+     */
+    static final SlotTrie EMPTY = new SlotTrie(new Object[WIDTH], 0);
+
+    private final Object[] root;
+    private final int shift;
+
+    private SlotTrie(Object[] root, int shift) {
+        this.root = root;
+        this.shift = shift;
+    }
+
+    /**
+     * Gets the value in the given slot.
+     *
+     * @param slot The slot, must not be negative.
+     * @return The value, or null if the slot holds no value.
+     */
+    @Nullable
+    Object get(int slot) {
+        if (slot >>> this.shift >= WIDTH)
+            return null;
+
+        Object[] node = this.root;
+        for (int level = this.shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(slot >>> level) & MASK];
+            if (node == null)
+                return null;
+        }
+
+        return node[slot & MASK];
+    }
+
+    /**
+     * Creates a version of the trie with the given value in the given slot.
+     *
+     * @param slot  The slot, must not be negative.
+     * @param value The value, can be null.
+     * @return The new version; this version is left unchanged.
+     */
+    SlotTrie with(int slot, @Nullable Object value) {
+        Object[] root = this.root;
+        int shift = this.shift;
+        while (slot >>> shift >= WIDTH) {
+            var grown = new Object[WIDTH];
+            grown[0] = root;
+            root = grown;
+            shift += BITS;
+        }
+
+        return new SlotTrie(with(root, shift, slot, value), shift);
+    }
+
+    private static Object[] with(@Nullable Object[] node, int level, int slot, @Nullable Object value) {
+        Object[] copy = node == null ? new Object[WIDTH] : node.clone();
+        int index = (slot >>> level) & MASK;
+        copy[index] = level == 0 ? value : with((Object[]) copy[index], level - BITS, slot, value);
+        return copy;
+    }
+}
@@ -0,0 +1,16 @@
+package io.github.railroad.settings;
+
+/**
+ * A handle to a registered listener that unregisters it when closed.
+ * Keeping the handle instead of the listener makes it possible to remove listeners that were registered as
+ * lambdas, and allows scoping a registration with try-with-resources.
+ * Closing a subscription more than once has no effect.
+ */
+@FunctionalInterface
+public interface Subscription extends AutoCloseable {
+    /**
+     * Unregisters the listener.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,75 @@
+package io.github.railroad.settings;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * A listener that only holds its target weakly, so that registering it does not keep the target alive.
+ * Once the target has been garbage collected the listener does nothing and is purged by the setting.
+ *
+ * @param <T> The type of the setting's value.
+ */
+final class WeakListener<T> implements DelegatingListener<T> {
+    private final WeakReference<Object> target;
+    private final BiConsumer<Object, T> action;
+    private final boolean targetIsListener;
+
+    private WeakListener(Object target, BiConsumer<Object, T> action, boolean targetIsListener) {
+        this.target = new WeakReference<>(target);
+        this.action = action;
+        this.targetIsListener = targetIsListener;
+    }
+
+    /**
+     * Creates a listener that holds the given listener weakly.
+     *
+     * @param listener The listener to notify while it is reachable.
+     * @param <T>      The type of the setting's value.
+     * @return The weak listener.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> WeakListener<T> of(Consumer<T> listener) {
+        return new WeakListener<>(listener, (target, value) -> ((Consumer<T>) target).accept(value), true);
+    }
+
+    /**
+     * Creates a listener that holds the given owner weakly and passes it to the action on every change.
+     * The action must not capture the owner, or the owner stays reachable through it.
+     *
+     * @param owner  The owner to notify while it is reachable.
+     * @param action The action to run with the owner and the new value.
+     * @param <O>    The type of the owner.
+     * @param <T>    The type of the setting's value.
+     * @return The weak listener.
+     */
+    @SuppressWarnings("unchecked")
+    static <O, T> WeakListener<T> of(O owner, BiConsumer<? super O, ? super T> action) {
+        return new WeakListener<>(owner, (target, value) -> action.accept((O) target, value), false);
+    }
+
+    /**
+     * Checks whether the target has been garbage collected.
+     *
+     * @return True if the listener will never be notified again, false otherwise.
+     */
+    boolean isCleared() {
+        return this.target.refersTo(null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public @Nullable Consumer<T> delegate() {
+        return this.targetIsListener ? (Consumer<T>) this.target.get() : null;
+    }
+
+    @Override
+    public void accept(T value) {
+        Object target = this.target.get();
+        if (target != null) {
+            this.action.accept(target, value);
+        }
+    }
+}
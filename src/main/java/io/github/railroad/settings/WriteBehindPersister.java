@@ -0,0 +1,216 @@
+package io.github.railroad.settings;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Persists the settings of a {@link JsonSettingsStore} in the background whenever they change.
+ * Changes are coalesced: the first change after a write schedules a flush once the configured window has passed,
+ * and every further change within that window is folded into the same write. Writes happen on a dedicated
+ * background thread and go through {@link JsonSettingsStore#save(Path)}, which replaces the file atomically.
+ * <p>
+ * Pending changes are flushed when the persister is {@link #close() closed}, and a JVM shutdown hook closes the
+ * persister if the application exits without doing so.
+ */
+public class WriteBehindPersister implements AutoCloseable {
+    private static final System.Logger LOGGER = System.getLogger(WriteBehindPersister.class.getName());
+
+    /**
+     * The store used to write the settings.
+     */
+    @Getter
+    private final JsonSettingsStore store;
+
+    /**
+     * The file the settings are written to.
+     */
+    @Getter
+    private final Path path;
+
+    /**
+     * The window within which changes are coalesced into a single write.
+     */
+    @Getter
+    private final Duration window;
+
+    private final Consumer<IOException> errorHandler;
+    private final ScheduledExecutorService executor;
+    private final Thread shutdownHook;
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * Constructs a new WriteBehindPersister that logs write failures through the {@link System.Logger} named after
+     * this class.
+     *
+     * @param store  The store used to write the settings.
+     * @param path   The file the settings are written to.
+     * @param window The window within which changes are coalesced into a single write.
+     */
+    public WriteBehindPersister(@NotNull JsonSettingsStore store, @NotNull Path path, @NotNull Duration window) {
+        this(store, path, window,
+                exception -> LOGGER.log(System.Logger.Level.ERROR, "Failed to save settings to " + path, exception));
+    }
+
+    /**
+     * Constructs a new WriteBehindPersister and subscribes to every setting currently registered in the store's registry.
+     * Settings registered afterwards can be subscribed with {@link #track(Setting)}.
+     *
+     * @param store        The store used to write the settings.
+     * @param path         The file the settings are written to.
+     * @param window       The window within which changes are coalesced into a single write.
+     * @param errorHandler The handler that is called on the background thread when a write fails.
+     */
+    public WriteBehindPersister(@NotNull JsonSettingsStore store, @NotNull Path path, @NotNull Duration window,
+                                @NotNull Consumer<IOException> errorHandler) {
+        if (store == null || path == null || window == null || errorHandler == null)
+            throw new IllegalArgumentException("Store, path, window and error handler cannot be null");
+
+        if (window.isNegative())
+            throw new IllegalArgumentException("Window cannot be negative");
+
+        this.store = store;
+        this.path = path;
+        this.window = window;
+        this.errorHandler = errorHandler;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "Settings-Persister");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        store.getRegistry().forEach(this::track);
+
+        this.shutdownHook = new Thread(this::close, "Settings-Persister-Shutdown");
+        Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+    }
+
+    /**
+     * Subscribes to changes of the given setting, so that they are persisted.
+     *
+     * @param setting The setting to subscribe to.
+     * @param <T>     The type of the setting's value.
+     */
+    public <T> void track(@NotNull Setting<T> setting) {
+        Consumer<T> listener = value -> markDirty();
+        Subscription subscription = setting.addListener(listener);
+        synchronized (this.subscriptions) {
+            this.subscriptions.add(subscription);
+        }
+    }
+
+    /**
+     * Marks the settings as changed and schedules a write if none is pending.
+     * This is called automatically for tracked settings, but can also be called directly after changing
+     * settings in a way that does not notify listeners. Changes made once the persister is closed are ignored.
+     */
+    public void markDirty() {
+        if (this.closed.get())
+            return;
+
+        this.dirty.set(true);
+        if (this.scheduled.compareAndSet(false, true)) {
+            try {
+                this.executor.schedule(this::scheduledWrite, this.window.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException exception) {
+                // Closed concurrently after the check above, the close has flushed or is flushing the changes
+                this.scheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Writes any pending changes immediately and waits for the write to complete.
+     * Does nothing once the persister has been closed, as closing already flushes.
+     *
+     * @throws IOException If the write fails.
+     */
+    public void flush() throws IOException {
+        if (this.executor.isShutdown())
+            return;
+
+        try {
+            this.executor.submit(() -> {
+                writeIfDirty();
+                return null;
+            }).get();
+        } catch (RejectedExecutionException exception) {
+            // Closed concurrently, the close has flushed the pending changes
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while flushing settings", exception);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof IOException ioException)
+                throw ioException;
+
+            throw new IOException("Failed to flush settings", exception.getCause());
+        }
+    }
+
+    /**
+     * Stops tracking changes, writes any pending changes and stops the background thread.
+     * Calling this method more than once has no effect.
+     */
+    @Override
+    public void close() {
+        if (!this.closed.compareAndSet(false, true))
+            return;
+
+        synchronized (this.subscriptions) {
+            this.subscriptions.forEach(Subscription::close);
+            this.subscriptions.clear();
+        }
+
+        try {
+            flush();
+        } catch (IOException exception) {
+            this.errorHandler.accept(exception);
+        } finally {
+            this.executor.shutdown();
+        }
+
+        if (Thread.currentThread() != this.shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(this.shutdownHook);
+            } catch (IllegalStateException ignored) {
+                // The JVM is already shutting down, in which case the hook will find the persister closed
+            }
+        }
+    }
+
+    private void scheduledWrite() {
+        try {
+            writeIfDirty();
+        } catch (IOException exception) {
+            this.errorHandler.accept(exception);
+        }
+    }
+
+    private void writeIfDirty() throws IOException {
+        this.scheduled.set(false);
+        if (!this.dirty.getAndSet(false))
+            return;
+
+        try {
+            this.store.save(this.path);
+        } catch (IOException exception) {
+            this.dirty.set(true);
+            throw exception;
+        }
+    }
+}
@@ -0,0 +1,507 @@
+package io.github.railroad.settings.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@code SettingCodec} for every record annotated with {@code GenerateSettingCodec}.
+ * <p>
+ * Each codec is written as a class next to its record that calls the record's accessors and canonical constructor
+ * directly, and resolves the codecs of the components to constants once, so that nothing is looked up reflectively
+ * when settings are loaded. Components whose codecs cannot be determined are reported as compile errors on the
+ * component. Components whose codecs are looked up in the default registry are reported as notes, as the lookup
+ * happens when the generated class is initialized and fails if no codec has been registered by then.
+ *
+ * @see io.github.railroad.settings.GenerateSettingCodec
+ */
+@SupportedAnnotationTypes(SettingCodecProcessor.ANNOTATION)
+public class SettingCodecProcessor extends AbstractProcessor {
+    static final String ANNOTATION = "io.github.railroad.settings.GenerateSettingCodec";
+
+    private static final String SETTINGS = "io.github.railroad.settings.";
+    private static final String SUPPORT = SETTINGS + "RecordCodecSupport";
+    private static final String DEFAULTS = SETTINGS + "DefaultSettingCodecs";
+    private static final String CODEC = SETTINGS + "SettingCodec";
+    private static final String GRID_PANE = "javafx.scene.layout.GridPane";
+    private static final Map<String, String> DEFAULT_CODECS = Map.of(
+            "java.lang.Boolean", "BOOLEAN",
+            "java.lang.String", "STRING",
+            "java.lang.Integer", "INTEGER",
+            "java.lang.Long", "LONG",
+            "java.lang.Double", "DOUBLE",
+            "java.lang.Float", "FLOAT");
+
+    private Elements elements;
+    private Filer filer;
+    private Messager messager;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.elements = processingEnv.getElementUtils();
+        this.filer = processingEnv.getFiler();
+        this.messager = processingEnv.getMessager();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.RECORD) {
+                    error(element, "@GenerateSettingCodec can only be applied to records");
+                    continue;
+                }
+
+                try {
+                    generate((TypeElement) element);
+                } catch (UnsupportedComponentException exception) {
+                    error(exception.component, exception.getMessage());
+                } catch (IOException exception) {
+                    error(element, "Failed to write the codec: " + exception.getMessage());
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private void generate(TypeElement record) throws IOException {
+        for (Element enclosing = record; enclosing instanceof TypeElement; enclosing = enclosing.getEnclosingElement()) {
+            if (enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+                error(record, "Records with generated codecs cannot be private, or be nested in private types");
+                return;
+            }
+        }
+
+        if (!record.getTypeParameters().isEmpty()) {
+            error(record, "Records with generated codecs cannot be generic");
+            return;
+        }
+
+        List<? extends RecordComponentElement> components = record.getRecordComponents();
+        String[] codecs = new String[components.size()];
+        for (int index = 0; index < codecs.length; index++) {
+            RecordComponentElement component = components.get(index);
+            if (this.processingEnv.getTypeUtils().isSameType(component.asType(), record.asType()))
+                throw new UnsupportedComponentException(component, "A record cannot contain itself");
+
+            codecs[index] = codecExpression(component, component.asType());
+        }
+
+        String packageName = this.elements.getPackageOf(record).getQualifiedName().toString();
+        String codecName = codecClassName(record);
+        String recordName = record.getQualifiedName().toString();
+        String id = codecId(record);
+
+        var source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+
+        // Not annotated with @Generated, which no processor claims and thus warns under -Xlint:processing
+        source.append("/**\n * Codec for {@link ").append(recordName).append("}, generated from its components by {@code ")
+                .append(getClass().getName()).append("}.\n */\n");
+        source.append("public final class ").append(codecName).append(" {\n");
+        for (int index = 0; index < codecs.length; index++) {
+            RecordComponentElement component = components.get(index);
+            source.append("    private static final ").append(CODEC).append('<')
+                    .append(typeName(component.asType(), true)).append(", ?> ").append(constantName(component))
+                    .append(" = ").append(codecs[index]).append(";\n");
+        }
+
+        source.append("    private static final String[] LABELS = {");
+        for (int index = 0; index < components.size(); index++) {
+            source.append(index == 0 ? "" : ", ").append(stringLiteral(name(components.get(index))));
+        }
+
+        source.append("};\n\n");
+        source.append("    /**\n     * The codec for {@link ").append(recordName).append("}.\n     */\n");
+        source.append("    public static final ").append(CODEC).append('<').append(recordName).append(", ")
+                .append(GRID_PANE).append("> CODEC =\n");
+        source.append("            ").append(CODEC).append(".<").append(recordName).append(", ").append(GRID_PANE)
+                .append(">builder()\n");
+        source.append("                    .id(").append(stringLiteral(id)).append(")\n");
+        source.append("                    .jsonEncoder(").append(codecName).append("::toJson)\n");
+        source.append("                    .jsonDecoder(").append(codecName).append("::fromJson)\n");
+        source.append("                    .streamEncoder(").append(codecName).append("::write)\n");
+        source.append("                    .streamDecoder(").append(codecName).append("::read)\n");
+        source.append("                    .equivalence(").append(codecName).append("::isEquivalent)\n");
+        source.append("                    .createNode(").append(codecName).append("::createNode)\n");
+        source.append("                    .nodeToValue(").append(codecName).append("::fromNode)\n");
+        source.append("                    .valueToNode(").append(codecName).append("::toNode)\n");
+        source.append("                    .nodeValidator(").append(codecName).append("::isNodeValid)\n");
+        source.append("                    .build();\n\n");
+        source.append("    private ").append(codecName).append("() {\n    }\n\n");
+
+        // JSON tree
+        source.append("    private static com.google.gson.JsonElement toJson(").append(recordName).append(" value) {\n");
+        source.append("        var json = new com.google.gson.JsonObject();\n");
+        for (RecordComponentElement component : components) {
+            source.append("        ").append(SUPPORT).append(".encode(json, ").append(stringLiteral(name(component)))
+                    .append(", ").append(constantName(component)).append(", value.").append(name(component))
+                    .append("());\n");
+        }
+
+        source.append("        return json;\n    }\n\n");
+        source.append("    private static ").append(recordName).append(" fromJson(com.google.gson.JsonElement element) {\n");
+        source.append("        com.google.gson.JsonObject json = element.getAsJsonObject();\n");
+        source.append("        return new ").append(recordName).append('(');
+        for (int index = 0; index < components.size(); index++) {
+            RecordComponentElement component = components.get(index);
+            source.append(index == 0 ? "\n" : ",\n").append("                ").append(SUPPORT).append(".decode(json, ")
+                    .append(stringLiteral(name(component))).append(", ").append(constantName(component)).append(", ")
+                    .append(fallback(component.asType())).append(')');
+        }
+
+        source.append(");\n    }\n\n");
+
+        // JSON stream
+        source.append("    private static void write(com.google.gson.stream.JsonWriter writer, ").append(recordName)
+                .append(" value) throws java.io.IOException {\n");
+        source.append("        writer.beginObject();\n");
+        for (RecordComponentElement component : components) {
+            source.append("        ").append(SUPPORT).append(".write(writer, ").append(stringLiteral(name(component)))
+                    .append(", ").append(constantName(component)).append(", value.").append(name(component))
+                    .append("());\n");
+        }
+
+        source.append("        writer.endObject();\n    }\n\n");
+        source.append("    private static ").append(recordName)
+                .append(" read(com.google.gson.stream.JsonReader reader) throws java.io.IOException {\n");
+        for (int index = 0; index < components.size(); index++) {
+            TypeMirror type = components.get(index).asType();
+            source.append("        ").append(typeName(type, false)).append(" component").append(index).append(" = ")
+                    .append(fallback(type)).append(";\n");
+        }
+
+        source.append("        reader.beginObject();\n");
+        source.append("        while (reader.hasNext()) {\n");
+        source.append("            switch (reader.nextName()) {\n");
+        for (int index = 0; index < components.size(); index++) {
+            RecordComponentElement component = components.get(index);
+            source.append("                case ").append(stringLiteral(name(component))).append(" -> component")
+                    .append(index).append(" = ").append(SUPPORT).append(".read(reader, ")
+                    .append(constantName(component)).append(", ").append(fallback(component.asType())).append(");\n");
+        }
+
+        source.append("                default -> reader.skipValue();\n");
+        source.append("            }\n        }\n\n");
+        source.append("        reader.endObject();\n");
+        source.append("        return new ").append(recordName).append('(');
+        for (int index = 0; index < components.size(); index++) {
+            source.append(index == 0 ? "" : ", ").append("component").append(index);
+        }
+
+        source.append(");\n    }\n\n");
+
+        // Equivalence
+        source.append("    private static boolean isEquivalent(").append(recordName).append(" first, ").append(recordName)
+                .append(" second) {\n");
+        source.append("        return ");
+        if (components.isEmpty()) {
+            source.append("true");
+        }
+
+        for (int index = 0; index < components.size(); index++) {
+            RecordComponentElement component = components.get(index);
+            source.append(index == 0 ? "" : "\n                && ").append(SUPPORT).append(".isEquivalent(")
+                    .append(constantName(component)).append(", first.").append(name(component))
+                    .append("(), second.").append(name(component)).append("())");
+        }
+
+        source.append(";\n    }\n\n");
+
+        // Nodes
+        source.append("    private static ").append(GRID_PANE).append(" createNode(").append(recordName)
+                .append(" value) {\n");
+        source.append("        return ").append(SUPPORT).append(".form(LABELS");
+        for (RecordComponentElement component : components) {
+            source.append(",\n                ").append(SUPPORT).append(".createNode(").append(constantName(component))
+                    .append(", value == null ? null : value.").append(name(component)).append("(), ")
+                    .append(nodeFallback(component.asType())).append(')');
+        }
+
+        source.append(");\n    }\n\n");
+        source.append("    private static ").append(recordName).append(" fromNode(").append(GRID_PANE).append(" form) {\n");
+        source.append("        return new ").append(recordName).append('(');
+        for (int index = 0; index < components.size(); index++) {
+            source.append(index == 0 ? "\n" : ",\n").append("                ").append(SUPPORT).append(".readNode(")
+                    .append(constantName(components.get(index))).append(", form, ").append(index).append(')');
+        }
+
+        source.append(");\n    }\n\n");
+        source.append("    private static void toNode(").append(recordName).append(" value, ").append(GRID_PANE)
+                .append(" form) {\n");
+        for (int index = 0; index < components.size(); index++) {
+            RecordComponentElement component = components.get(index);
+            source.append("        ").append(SUPPORT).append(".writeNode(").append(constantName(component))
+                    .append(", value == null ? null : value.").append(name(component)).append("(), ")
+                    .append(nodeFallback(component.asType())).append(", form, ").append(index).append(");\n");
+        }
+
+        source.append("    }\n\n");
+        source.append("    private static boolean isNodeValid(").append(GRID_PANE).append(" form) {\n");
+        source.append("        return ");
+        if (components.isEmpty()) {
+            source.append("true");
+        }
+
+        for (int index = 0; index < components.size(); index++) {
+            source.append(index == 0 ? "" : "\n                && ").append(SUPPORT).append(".isNodeValid(")
+                    .append(constantName(components.get(index))).append(", form, ").append(index).append(')');
+        }
+
+        source.append(";\n    }\n}\n");
+
+        String qualifiedName = packageName.isEmpty() ? codecName : packageName + "." + codecName;
+        try (Writer writer = this.filer.createSourceFile(qualifiedName, record).openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    /**
+     * Builds the expression resolving the codec of the given type.
+     *
+     * @throws UnsupportedComponentException If no codec can be determined for the type.
+     */
+    private String codecExpression(RecordComponentElement component, TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            String codec = DEFAULT_CODECS.get(boxedName(type));
+            if (codec == null)
+                throw new UnsupportedComponentException(component, "No codec for primitive type " + type);
+
+            return DEFAULTS + "." + codec;
+        }
+
+        if (type.getKind() != TypeKind.DECLARED)
+            throw new UnsupportedComponentException(component, "No codec for type " + type);
+
+        var declared = (DeclaredType) type;
+        var element = (TypeElement) declared.asElement();
+        String name = element.getQualifiedName().toString();
+        List<? extends TypeMirror> arguments = declared.getTypeArguments();
+        switch (name) {
+            case "java.util.List":
+                return CODEC + ".listOf(" + codecExpression(component, argument(component, arguments, 0)) + ")";
+            case "java.util.Set":
+                return CODEC + ".setOf(" + codecExpression(component, argument(component, arguments, 0)) + ")";
+            case "java.util.Optional":
+                return CODEC + ".optionalOf(" + codecExpression(component, argument(component, arguments, 0)) + ")";
+            case "java.util.Map": {
+                TypeMirror key = argument(component, arguments, 0);
+                if (!(key instanceof DeclaredType keyType)
+                        || !((TypeElement) keyType.asElement()).getQualifiedName().contentEquals("java.lang.String"))
+                    throw new UnsupportedComponentException(component, "Only maps with String keys are supported");
+
+                return CODEC + ".mapOf(" + codecExpression(component, argument(component, arguments, 1)) + ")";
+            }
+            default:
+                break;
+        }
+
+        if (DEFAULT_CODECS.containsKey(name))
+            return DEFAULTS + "." + DEFAULT_CODECS.get(name);
+
+        if (!arguments.isEmpty())
+            throw new UnsupportedComponentException(component, "No codec for generic type " + type);
+
+        if (element.getKind() == ElementKind.ENUM)
+            return CODEC + ".enumByName(" + name + ".class)";
+
+        if (element.getKind() == ElementKind.RECORD && hasAnnotation(element)) {
+            String packageName = this.elements.getPackageOf(element).getQualifiedName().toString();
+            return (packageName.isEmpty() ? "" : packageName + ".") + codecClassName(element) + ".CODEC";
+        }
+
+        String componentName = ((TypeElement) component.getEnclosingElement()).getQualifiedName() + "."
+                + name(component);
+        this.messager.printMessage(Diagnostic.Kind.NOTE, "The codec for " + name + " is looked up in the default "
+                + "registry when the codec of " + componentName + " is first used, and must be registered by then",
+                component);
+        return SUPPORT + ".registered(" + name + ".class, " + stringLiteral(componentName) + ")";
+    }
+
+    private static TypeMirror argument(RecordComponentElement component, List<? extends TypeMirror> arguments,
+                                       int index) {
+        if (index >= arguments.size())
+            throw new UnsupportedComponentException(component, "Raw collection types are not supported");
+
+        TypeMirror argument = arguments.get(index);
+        if (argument.getKind() != TypeKind.DECLARED)
+            throw new UnsupportedComponentException(component, "Unsupported type argument " + argument);
+
+        return argument;
+    }
+
+    /**
+     * Prints a type as source, without the type annotations {@link TypeMirror#toString()} would include.
+     */
+    private String typeName(TypeMirror type, boolean boxed) {
+        if (type.getKind().isPrimitive())
+            return boxed ? boxedName(type) : type.getKind().name().toLowerCase();
+
+        var declared = (DeclaredType) type;
+        var name = new StringBuilder(((TypeElement) declared.asElement()).getQualifiedName());
+        List<? extends TypeMirror> arguments = declared.getTypeArguments();
+        for (int index = 0; index < arguments.size(); index++) {
+            name.append(index == 0 ? '<' : ", ").append(typeName(arguments.get(index), true));
+        }
+
+        return arguments.isEmpty() ? name.toString() : name.append('>').toString();
+    }
+
+    private String boxedName(TypeMirror primitive) {
+        return this.processingEnv.getTypeUtils().boxedClass(
+                this.processingEnv.getTypeUtils().getPrimitiveType(primitive.getKind())).getQualifiedName().toString();
+    }
+
+    private static String fallback(TypeMirror type) {
+        return switch (type.getKind()) {
+            case BOOLEAN -> "false";
+            case INT -> "0";
+            case LONG -> "0L";
+            case FLOAT -> "0.0f";
+            case DOUBLE -> "0.0";
+            case DECLARED -> ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName()
+                    .contentEquals("java.util.Optional") ? "java.util.Optional.empty()" : "null";
+            default -> "null";
+        };
+    }
+
+    /**
+     * Builds the value a component's node shows when the component is null, which is the primitive default for boxes
+     * and an empty value for strings and collections. Other types are shown as null.
+     */
+    private String nodeFallback(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED)
+            return fallback(type);
+
+        String name = ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+        if (DEFAULT_CODECS.containsKey(name) && !name.equals("java.lang.String"))
+            return fallback(this.processingEnv.getTypeUtils().unboxedType(type));
+
+        return switch (name) {
+            case "java.lang.String" -> "\"\"";
+            case "java.util.List" -> "java.util.List.of()";
+            case "java.util.Set" -> "java.util.Set.of()";
+            case "java.util.Map" -> "java.util.Map.of()";
+            default -> fallback(type);
+        };
+    }
+
+    private String codecId(TypeElement record) {
+        for (AnnotationMirror mirror : record.getAnnotationMirrors()) {
+            if (!((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(ANNOTATION))
+                continue;
+
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                    : mirror.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("id") && !entry.getValue().getValue().toString().isEmpty())
+                    return entry.getValue().getValue().toString();
+            }
+        }
+
+        return record.getQualifiedName().toString();
+    }
+
+    private static boolean hasAnnotation(TypeElement element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(ANNOTATION))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Names the codec class of a record after the record and its enclosing types, such as {@code Outer_InnerCodec}.
+     */
+    private static String codecClassName(TypeElement record) {
+        var name = new StringBuilder(record.getSimpleName()).append("Codec");
+        for (Element enclosing = record.getEnclosingElement(); !(enclosing instanceof PackageElement);
+             enclosing = enclosing.getEnclosingElement()) {
+            name.insert(0, enclosing.getSimpleName() + "_");
+        }
+
+        return name.toString();
+    }
+
+    private static String constantName(RecordComponentElement component) {
+        String name = name(component);
+        var constant = new StringBuilder();
+        for (int index = 0; index < name.length(); index++) {
+            char character = name.charAt(index);
+            if (Character.isUpperCase(character) && index > 0 && !Character.isUpperCase(name.charAt(index - 1))) {
+                constant.append('_');
+            }
+
+            constant.append(Character.toUpperCase(character));
+        }
+
+        return constant.append("_CODEC").toString();
+    }
+
+    private static String name(RecordComponentElement component) {
+        return component.getSimpleName().toString();
+    }
+
+    private static String stringLiteral(String value) {
+        var literal = new StringBuilder("\"");
+        for (int index = 0; index < value.length(); index++) {
+            char character = value.charAt(index);
+            switch (character) {
+                case '"' -> literal.append("\\\"");
+                case '\\' -> literal.append("\\\\");
+                case '\n' -> literal.append("\\n");
+                default -> literal.append(character);
+            }
+        }
+
+        return literal.append('"').toString();
+    }
+
+    private void error(Element element, String message) {
+        this.messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * Thrown when no codec can be determined for a record component.
+     */
+    private static final class UnsupportedComponentException extends RuntimeException {
+        private final RecordComponentElement component;
+
+        private UnsupportedComponentException(RecordComponentElement component, String message) {
+            super(message);
+            this.component = component;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.railroad.settings;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that an optional setting whose default is present keeps being empty once cleared, through every store.
+ */
+class OptionalSettingPersistenceTest {
+    private static final SettingCodec<Optional<String>, ?> CODEC = SettingCodec.optionalOf(DefaultSettingCodecs.STRING);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void clearedOptionalSurvivesJsonSettingsStore() throws IOException {
+        Path path = this.directory.resolve("settings.json");
+        var registry = new SettingsRegistry();
+        SettingKey<Optional<String>> font = registry.register(optionalSetting("editor.font"));
+        SettingKey<Optional<String>> theme = registry.register(optionalSetting("editor.theme"));
+        registry.setValue(font, Optional.empty());
+        registry.setValue(theme, Optional.of("Dark"));
+        new JsonSettingsStore(registry).save(path);
+
+        var loaded = new SettingsRegistry();
+        SettingKey<Optional<String>> loadedFont = loaded.register(optionalSetting("editor.font"));
+        SettingKey<Optional<String>> loadedTheme = loaded.register(optionalSetting("editor.theme"));
+        assertTrue(new JsonSettingsStore(loaded).load(path));
+        assertEquals(Optional.empty(), loaded.getValue(loadedFont));
+        assertEquals(Optional.of("Dark"), loaded.getValue(loadedTheme));
+
+        var lazy = new SettingsRegistry();
+        SettingKey<Optional<String>> lazyFont = lazy.register(optionalSetting("editor.font"));
+        SettingKey<Optional<String>> lazyTheme = lazy.register(optionalSetting("editor.theme"));
+        assertTrue(new JsonSettingsStore(lazy).loadLazily(path));
+        assertEquals(Optional.empty(), lazy.getValue(lazyFont));
+        assertEquals(Optional.of("Dark"), lazy.getValue(lazyTheme));
+    }
+
+    @Test
+    void clearedOptionalSurvivesJournalReplay() throws IOException {
+        Path path = this.directory.resolve("settings.json");
+        var registry = new SettingsRegistry();
+        SettingKey<Optional<String>> font = registry.register(optionalSetting("editor.font"));
+        try (var store = new JournalSettingsStore(registry, path, Long.MAX_VALUE)) {
+            store.open();
+            registry.setValue(font, Optional.of("Fira Code"));
+            registry.setValue(font, Optional.empty());
+        }
+
+        var replayed = new SettingsRegistry();
+        SettingKey<Optional<String>> replayedFont = replayed.register(optionalSetting("editor.font"));
+        try (var store = new JournalSettingsStore(replayed, path, Long.MAX_VALUE)) {
+            store.open();
+            assertEquals(Optional.empty(), replayed.getValue(replayedFont));
+
+            store.compact();
+        }
+
+        var compacted = new SettingsRegistry();
+        SettingKey<Optional<String>> compactedFont = compacted.register(optionalSetting("editor.font"));
+        try (var store = new JournalSettingsStore(compacted, path, Long.MAX_VALUE)) {
+            store.open();
+            assertEquals(Optional.empty(), compacted.getValue(compactedFont));
+        }
+    }
+
+    @Test
+    void optionalsRoundTripThroughEveryEncoding() throws IOException {
+        for (Optional<String> value : List.of(Optional.<String>empty(), Optional.of("Fira Code"))) {
+            assertEquals(value, CODEC.deserializeJson(CODEC.serializeJson(value)));
+
+            var text = new StringWriter();
+            var writer = new JsonWriter(text);
+            CODEC.encode(writer, value);
+            writer.flush();
+            assertEquals(value, CODEC.decode(new JsonReader(new StringReader(text.toString()))));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Setting.Builder<Optional<String>> optionalSetting(String id) {
+        return Setting.builder((Class<Optional<String>>) (Class<?>) Optional.class, id)
+                .treePath("editor")
+                .codec(CODEC)
+                .defaultValue(Optional.of("Monospaced"));
+    }
+}
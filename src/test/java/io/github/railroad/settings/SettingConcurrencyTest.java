@@ -0,0 +1,144 @@
+package io.github.railroad.settings;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the atomicity and visibility of setting writes made from several threads at once.
+ * Each test starts its writers together behind a latch, so that their updates actually contend.
+ */
+class SettingConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int UPDATES_PER_THREAD = 10_000;
+
+    @Test
+    void updateAndGetLosesNoUpdates() throws Exception {
+        Setting<Integer> setting = intSetting();
+        var notifications = new AtomicInteger();
+        setting.addListener(value -> notifications.incrementAndGet());
+
+        runConcurrently(() -> {
+            for (int update = 0; update < UPDATES_PER_THREAD; update++) {
+                setting.updateAndGet(value -> value + 1);
+            }
+        });
+
+        assertEquals(THREADS * UPDATES_PER_THREAD, (int) setting.getValue());
+        assertEquals(THREADS * UPDATES_PER_THREAD, notifications.get(), "Every update must notify exactly once");
+    }
+
+    @Test
+    void updateAndGetIntLosesNoUpdates() throws Exception {
+        var setting = new IntSetting("test.counter", "test", 0);
+        runConcurrently(() -> {
+            for (int update = 0; update < UPDATES_PER_THREAD; update++) {
+                setting.updateAndGetInt(value -> value + 1);
+            }
+        });
+
+        assertEquals(THREADS * UPDATES_PER_THREAD, setting.getAsInt());
+    }
+
+    @Test
+    void compareAndSetLetsExactlyOneWriterWinEachRound() throws Exception {
+        Setting<Integer> setting = intSetting();
+        var wins = new AtomicInteger();
+        runConcurrently(() -> {
+            for (int round = 0; round < UPDATES_PER_THREAD; round++) {
+                // Every thread tries to move the value from the round number to the next one
+                while (setting.getValue() < round) {
+                    Thread.onSpinWait();
+                }
+
+                if (setting.compareAndSet(round, round + 1)) {
+                    wins.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(UPDATES_PER_THREAD, (int) setting.getValue());
+        assertEquals(UPDATES_PER_THREAD, wins.get(), "Each round must have exactly one winner");
+    }
+
+    @Test
+    void getAndSetHandsEveryValueToExactlyOneWriter() throws Exception {
+        Setting<Integer> setting = intSetting();
+        var next = new AtomicInteger(1);
+        var previousSum = new AtomicLong();
+        runConcurrently(() -> {
+            for (int update = 0; update < UPDATES_PER_THREAD; update++) {
+                previousSum.addAndGet(setting.getAndSet(next.getAndIncrement()));
+            }
+        });
+
+        // Each written value is returned as a previous value exactly once, except the one left in the setting
+        int written = THREADS * UPDATES_PER_THREAD;
+        long expectedSum = (long) written * (written + 1) / 2 - setting.getValue();
+        assertEquals(expectedSum, previousSum.get());
+    }
+
+    @Test
+    void writesAreVisibleToReadersOnOtherThreads() throws Exception {
+        Setting<Integer> setting = intSetting();
+        var done = new CountDownLatch(1);
+        Thread reader = new Thread(() -> {
+            while (setting.getValue() < UPDATES_PER_THREAD) {
+                Thread.onSpinWait();
+            }
+
+            done.countDown();
+        });
+
+        reader.start();
+        for (int update = 1; update <= UPDATES_PER_THREAD; update++) {
+            setting.setValue(update);
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS), "Reader never saw the last write");
+    }
+
+    private static Setting<Integer> intSetting() {
+        return Setting.builder(Integer.class, "test.counter")
+                .treePath("test")
+                .codec(DefaultSettingCodecs.INTEGER)
+                .defaultValue(0)
+                .build();
+    }
+
+    /**
+     * Runs the task on {@link #THREADS} threads at once and waits for all of them, rethrowing the first failure.
+     */
+    private static void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            var start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.railroad.settings;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the validation and application of staged values, including settings declared with a primitive type.
+ */
+class SettingsTransactionTest {
+    @Test
+    void commitsValuesOfPrimitiveTypedSettings() {
+        var registry = new SettingsRegistry();
+        SettingKey<Integer> size = registry.register(Setting.builder(int.class, "editor.fontSize")
+                .treePath("editor")
+                .defaultValue(12));
+        SettingKey<Boolean> wrap = registry.register(Setting.builder(boolean.class, "editor.wordWrap")
+                .treePath("editor")
+                .defaultValue(false));
+
+        SettingsTransaction transaction = registry.beginTransaction()
+                .set(size, 14)
+                .set(wrap, true);
+
+        assertEquals(List.of(), transaction.validate());
+        transaction.commit();
+        assertEquals(14, (int) registry.getValue(size));
+        assertTrue(registry.getValue(wrap));
+    }
+
+    @Test
+    void rejectsNullForPrimitiveTypedSettings() {
+        var registry = new SettingsRegistry();
+        SettingKey<Integer> size = registry.register(Setting.builder(int.class, "editor.fontSize")
+                .treePath("editor")
+                .defaultValue(12));
+
+        SettingsTransaction transaction = registry.beginTransaction().set(size, null);
+        assertFalse(transaction.validate().isEmpty());
+        assertThrows(IllegalStateException.class, transaction::commit);
+        assertEquals(12, (int) registry.getValue(size));
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void rejectsValuesOfAnotherType() {
+        var registry = new SettingsRegistry();
+        SettingKey<Integer> size = registry.register(Setting.builder(int.class, "editor.fontSize")
+                .treePath("editor")
+                .defaultValue(12));
+
+        SettingsTransaction transaction = registry.beginTransaction().set((SettingKey) size, "large");
+        assertEquals(1, transaction.validate().size());
+        assertThrows(IllegalStateException.class, transaction::commit);
+        assertEquals(12, (int) registry.getValue(size));
+    }
+}
@@ -0,0 +1,186 @@
+package io.github.railroad.settings.processor;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import io.github.railroad.settings.JsonSettingsStore;
+import io.github.railroad.settings.Setting;
+import io.github.railroad.settings.SettingCodec;
+import io.github.railroad.settings.SettingCodecRegistry;
+import io.github.railroad.settings.SettingKey;
+import io.github.railroad.settings.SettingsRegistry;
+import javafx.scene.control.TextField;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compiles records with the processor and checks that the generated codecs compile without warnings and round-trip
+ * every kind of component.
+ */
+class SettingCodecProcessorTest {
+    private static final SettingCodec<UUID, TextField> UUID_CODEC =
+            SettingCodec.builder("test.uuid", UUID.class, TextField.class)
+                    .jsonDecoder(json -> UUID.fromString(json.getAsString()))
+                    .jsonEncoder(uuid -> new JsonPrimitive(uuid.toString()))
+                    .build();
+
+    private static final String SOURCE = """
+            package example;
+
+            import io.github.railroad.settings.GenerateSettingCodec;
+
+            import java.util.List;
+            import java.util.Optional;
+            import java.util.UUID;
+
+            public final class Profiles {
+                public enum Mode { GUTTER, MINIMAP }
+
+                @GenerateSettingCodec(id = "example.font")
+                public record Font(String family, int size, boolean bold) {
+                }
+
+                @GenerateSettingCodec
+                public record Profile(int tabSize, long seed, double lineHeight, float scale, boolean wrap,
+                                      Integer limit, Boolean pinned, Mode mode, Font font, Optional<Mode> overview,
+                                      Optional<Font> fallbackFont, List<String> paths, UUID id) {
+                }
+            }
+            """;
+
+    private static final String PROFILE = """
+            {
+              "tabSize": 4, "seed": 9007199254740993, "lineHeight": 1.5, "scale": 1.25, "wrap": true,
+              "limit": 120, "pinned": null, "mode": "MINIMAP",
+              "font": {"family": "Fira Code", "size": 13, "bold": false},
+              "overview": [], "fallbackFont": [{"family": "Monospaced", "size": 12, "bold": true}],
+              "paths": ["src", "test"], "id": "123e4567-e89b-12d3-a456-426614174000"
+            }
+            """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void generatedCodecsCompileWithoutWarnings() throws IOException {
+        var diagnostics = new DiagnosticCollector<JavaFileObject>();
+        compile(diagnostics);
+
+        List<String> problems = diagnostics.getDiagnostics().stream()
+                .filter(diagnostic -> diagnostic.getKind() != Diagnostic.Kind.NOTE)
+                .map(diagnostic -> diagnostic.getMessage(Locale.ROOT))
+                .toList();
+        assertEquals(List.of(), problems);
+        assertTrue(diagnostics.getDiagnostics().stream().anyMatch(diagnostic ->
+                        diagnostic.getKind() == Diagnostic.Kind.NOTE
+                                && diagnostic.getMessage(Locale.ROOT).contains("java.util.UUID")),
+                "Expected a note for the component whose codec is looked up in the default registry");
+    }
+
+    @Test
+    void generatedCodecsRoundTripEveryComponent() throws Exception {
+        ClassLoader loader = compile(new DiagnosticCollector<>());
+        SettingCodec<Object, ?> codec = generatedCodec(loader, "example.Profiles_ProfileCodec");
+        JsonElement expected = JsonParser.parseString(PROFILE);
+
+        Object profile = codec.deserializeJson(expected);
+        assertEquals(expected, codec.serializeJson(profile));
+        assertEquals(profile, codec.deserializeJson(codec.serializeJson(profile)));
+        assertEquals(Optional.empty(), component(profile, "overview"));
+
+        var text = new StringWriter();
+        codec.encode(new JsonWriter(text), profile);
+        assertEquals(expected, JsonParser.parseString(text.toString()));
+        assertEquals(profile, codec.decode(new JsonReader(new StringReader(text.toString()))));
+
+        Object partial = codec.decode(new JsonReader(new StringReader("{\"tabSize\": 2, \"unknown\": [1]}")));
+        assertEquals(2, (int) component(partial, "tabSize"));
+        assertEquals(Optional.empty(), component(partial, "fallbackFont"));
+        assertNull(component(partial, "font"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void clearedOptionalRecordSurvivesReload() throws Exception {
+        ClassLoader loader = compile(new DiagnosticCollector<>());
+        SettingCodec<Optional<Object>, ?> codec =
+                SettingCodec.optionalOf(generatedCodec(loader, "example.Profiles_FontCodec"));
+        Object font = codec.deserializeJson(JsonParser.parseString("[{\"family\": \"Mono\", \"size\": 12, \"bold\": true}]"))
+                .orElseThrow();
+        Setting.Builder<Optional<Object>> builder =
+                Setting.builder((Class<Optional<Object>>) (Class<?>) Optional.class, "editor.fallbackFont")
+                        .treePath("editor")
+                        .codec(codec)
+                        .defaultValue(Optional.of(font));
+
+        Path path = this.directory.resolve("settings.json");
+        var registry = new SettingsRegistry();
+        registry.setValue(registry.register(builder), Optional.empty());
+        new JsonSettingsStore(registry).save(path);
+
+        var loaded = new SettingsRegistry();
+        SettingKey<Optional<Object>> key = loaded.register(builder);
+        assertTrue(new JsonSettingsStore(loaded).load(path));
+        assertEquals(Optional.empty(), loaded.getValue(key));
+    }
+
+    /**
+     * Compiles {@link #SOURCE} with the processor and returns a class loader for the compiled and generated classes.
+     */
+    private ClassLoader compile(DiagnosticCollector<JavaFileObject> diagnostics) throws IOException {
+        SettingCodecRegistry.getDefault().register(UUID.class, UUID_CODEC);
+
+        Path source = Files.createDirectories(this.directory.resolve("src/example")).resolve("Profiles.java");
+        Files.writeString(source, SOURCE);
+        Path classes = Files.createDirectories(this.directory.resolve("classes"));
+        Path generated = Files.createDirectories(this.directory.resolve("generated"));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager =
+                     compiler.getStandardFileManager(diagnostics, Locale.ROOT, StandardCharsets.UTF_8)) {
+            // Class path entries the build declares but never creates are not a problem of the generated code
+            List<String> options = List.of("-Xlint:all,-path", "-classpath", System.getProperty("java.class.path"),
+                    "-d", classes.toString(), "-s", generated.toString());
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null,
+                    fileManager.getJavaFileObjects(source));
+            task.setProcessors(List.of(new SettingCodecProcessor()));
+            assertTrue(task.call(), "Compilation failed: " + diagnostics.getDiagnostics());
+        }
+
+        return new URLClassLoader(new URL[]{classes.toUri().toURL()}, getClass().getClassLoader());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SettingCodec<Object, ?> generatedCodec(ClassLoader loader, String name) throws ReflectiveOperationException {
+        return (SettingCodec<Object, ?>) loader.loadClass(name).getField("CODEC").get(null);
+    }
+
+    private static Object component(Object record, String name) throws ReflectiveOperationException {
+        return record.getClass().getMethod(name).invoke(record);
+    }
+}